@@ -0,0 +1,58 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * The binary tree algorithm. Every cell carves either the wall to its right
+ * or the wall below it, so the maze has a clear diagonal bias, an open bottom
+ * row and an open right column. By far the easiest mazes there are, and the
+ * cheapest to make.
+ */
+public class BinaryTreeGenerator extends RowMazeGenerator {
+
+    /**
+     * @param threads The number of threads to generate large mazes on.
+     */
+    public BinaryTreeGenerator(int threads) {
+        super(threads);
+    }
+
+    @Override
+    public String getName() {
+        return MazeGenerators.BINARY_TREE;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 10L * width * height;
+    }
+
+    @Override
+    void carveRow(CompactMaze maze, int y, SplitMix64 rand) {
+        int width = maze.getWidth();
+        int cell = y * width;
+        if (y + 1 == maze.getHeight()) {
+            for (int x = 0; x + 1 < width; x++) {
+                maze.carve(cell + x, CompactMaze.EAST);
+            }
+            return;
+        }
+        for (int x = 0; x + 1 < width; x++) {
+            maze.carve(cell + x, rand.nextBoolean() ? CompactMaze.EAST : CompactMaze.SOUTH);
+        }
+        maze.carve(cell + width - 1, CompactMaze.SOUTH);
+    }
+}
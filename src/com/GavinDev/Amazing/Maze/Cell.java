@@ -26,13 +26,6 @@ public class Cell implements Parcelable {
     public static final int END_CELL = 2;
     int type = REGULAR_CELL;
     int id;
-    Cell ref = this;
-    /**
-     * Rank is used differently in different algorithms. In Kruskal's algorithm
-     * it's used as part of a union-find data structure. In the DFS algorithm
-     * it's used to mark cells as visited or not.
-     */
-    int rank = 1;
     Point coordinates;
 
     public Cell(int id, int x, int y) {
@@ -52,14 +45,6 @@ public class Cell implements Parcelable {
         this.type = type;
     }
 
-    void markVisited() {
-        rank = 0;
-    }
-
-    boolean isUnvisited() {
-        return rank != 0;
-    }
-
     @Override
     public int hashCode() {
         final int prime = 17;
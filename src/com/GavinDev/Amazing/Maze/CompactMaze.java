@@ -0,0 +1,292 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.Arrays;
+
+/**
+ * A maze stored as two bits per cell: one for the wall to the right of the
+ * cell and one for the wall below it. The walls to the left of and above a
+ * cell are the right and bottom walls of its neighbors, or the boundary.
+ * Cells are numbered in row major order, cell = y * width + x, and 32 cells
+ * are packed into each long, so a maze of millions of cells takes a few MB.
+ * <p>
+ * The walls on the boundary of the maze always exist.
+ * 
+ * @see Maze#Maze(CompactMaze) to use a CompactMaze where a Maze is needed.
+ */
+public class CompactMaze implements Parcelable {
+
+    // Directions
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+
+    private static final long RIGHT_WALL = 1L;
+    private static final long BOTTOM_WALL = 2L;
+    /** Every bit set, i.e. both walls of all 32 cells in a word. */
+    private static final long ALL_WALLS = -1L;
+
+    private int mWidth;
+    private int mHeight;
+    private long[] mWalls;
+
+    /**
+     * Creates a maze of the given size with every wall, i.e. a grid.
+     */
+    public CompactMaze(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Invalid maze size");
+        mWidth = width;
+        mHeight = height;
+        mWalls = new long[(int) (((long) width * height + 31) >>> 5)];
+        Arrays.fill(mWalls, ALL_WALLS);
+    }
+
+    /**
+     * Creates a CompactMaze with the same walls as the given maze.
+     */
+    public CompactMaze(Maze maze) {
+        this(maze.getWidth(), maze.getHeight());
+        clearInsideWalls();
+        for (Wall w : maze.getWalls()) {
+            Cell cell1 = w.getCell1();
+            Cell cell2 = w.getCell2();
+            if (cell1 == null || cell2 == null)
+                continue;
+            Cell first = cell1.id < cell2.id ? cell1 : cell2;
+            Cell second = cell1.id < cell2.id ? cell2 : cell1;
+            setBit(first.id, second.id == first.id + 1 ? RIGHT_WALL : BOTTOM_WALL);
+        }
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return The number of cells in the maze.
+     */
+    public int getCellCount() {
+        return mWidth * mHeight;
+    }
+
+    /**
+     * @return The index of the cell at column x and row y.
+     */
+    public int cellAt(int x, int y) {
+        return y * mWidth + x;
+    }
+
+    public boolean hasWall(int x, int y, int direction) {
+        return hasWall(cellAt(x, y), direction);
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @param direction One of NORTH, EAST, SOUTH or WEST.
+     * @return True iff the cell has a wall on the given side.
+     */
+    public boolean hasWall(int cell, int direction) {
+        switch (direction) {
+            case NORTH:
+                return cell < mWidth || getBit(cell - mWidth, BOTTOM_WALL);
+            case EAST:
+                return getBit(cell, RIGHT_WALL);
+            case SOUTH:
+                return getBit(cell, BOTTOM_WALL);
+            case WEST:
+                return cell % mWidth == 0 || getBit(cell - 1, RIGHT_WALL);
+            default:
+                throw new IllegalArgumentException("Invalid direction");
+        }
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @param direction One of NORTH, EAST, SOUTH or WEST.
+     * @return The index of the neighboring cell in the given direction, or -1
+     *         if the cell is on that boundary of the maze.
+     */
+    public int neighbor(int cell, int direction) {
+        switch (direction) {
+            case NORTH:
+                return cell < mWidth ? -1 : cell - mWidth;
+            case EAST:
+                return cell % mWidth == mWidth - 1 ? -1 : cell + 1;
+            case SOUTH:
+                return cell >= mWidth * (mHeight - 1) ? -1 : cell + mWidth;
+            case WEST:
+                return cell % mWidth == 0 ? -1 : cell - 1;
+            default:
+                throw new IllegalArgumentException("Invalid direction");
+        }
+    }
+
+    /**
+     * Adds or removes the wall on the given side of a cell.
+     * 
+     * @throws IllegalArgumentException if the wall is on the boundary.
+     */
+    public void setWall(int cell, int direction, boolean present) {
+        int neighbor = neighbor(cell, direction);
+        if (neighbor < 0)
+            throw new IllegalArgumentException("Boundary walls can't be changed");
+        // The wall is stored in whichever of the two cells is up or left.
+        int owner = Math.min(cell, neighbor);
+        long bit = direction == EAST || direction == WEST ? RIGHT_WALL : BOTTOM_WALL;
+        if (present)
+            setBit(owner, bit);
+        else
+            clearBit(owner, bit);
+    }
+
+    /**
+     * Removes every wall except the boundary, i.e. makes the maze one open
+     * room.
+     */
+    public void clearInsideWalls() {
+        Arrays.fill(mWalls, 0L);
+        for (int y = 0; y < mHeight; y++) {
+            setBit(y * mWidth + mWidth - 1, RIGHT_WALL);
+        }
+        for (int x = 0; x < mWidth; x++) {
+            setBit((mHeight - 1) * mWidth + x, BOTTOM_WALL);
+        }
+        // Keep the unused bits of the last word set, as countWalls expects.
+        int usedCells = (mWidth * mHeight) & 31;
+        if (usedCells != 0)
+            mWalls[mWalls.length - 1] |= ALL_WALLS << (usedCells << 1);
+    }
+
+    /**
+     * Removes the wall between a cell and its neighbor in the given direction.
+     */
+    public void carve(int cell, int direction) {
+        setWall(cell, direction, false);
+    }
+
+    /**
+     * An edge names an inside wall with one int: 2 * cell for the wall to the
+     * right of a cell and 2 * cell + 1 for the wall below it.
+     * 
+     * @return The edge for the wall on the given side of a cell.
+     */
+    public int edgeOf(int cell, int direction) {
+        switch (direction) {
+            case NORTH:
+                return 2 * (cell - mWidth) + 1;
+            case EAST:
+                return 2 * cell;
+            case SOUTH:
+                return 2 * cell + 1;
+            case WEST:
+                return 2 * (cell - 1);
+            default:
+                throw new IllegalArgumentException("Invalid direction");
+        }
+    }
+
+    /**
+     * @return The cell above or to the left of the wall named by the edge.
+     * @see #edgeOf(int, int)
+     */
+    public static int edgeCell(int edge) {
+        return edge >>> 1;
+    }
+
+    /**
+     * @return The direction of the wall named by the edge from
+     *         {@link #edgeCell(int)}, EAST or SOUTH.
+     * @see #edgeOf(int, int)
+     */
+    public static int edgeDirection(int edge) {
+        return (edge & 1) == 0 ? EAST : SOUTH;
+    }
+
+    /**
+     * @return The number of walls in the maze, including the boundary.
+     */
+    public int countWalls() {
+        int count = 0;
+        for (long word : mWalls) {
+            count += Long.bitCount(word);
+        }
+        // Don't count the unused bits of the last word, then add the left and
+        // top boundary which are not stored.
+        int unusedCells = mWalls.length * 32 - mWidth * mHeight;
+        return count - 2 * unusedCells + mWidth + mHeight;
+    }
+
+    private boolean getBit(int cell, long bit) {
+        return (mWalls[cell >>> 5] & (bit << ((cell & 31) << 1))) != 0;
+    }
+
+    private void setBit(int cell, long bit) {
+        mWalls[cell >>> 5] |= bit << ((cell & 31) << 1);
+    }
+
+    private void clearBit(int cell, long bit) {
+        mWalls[cell >>> 5] &= ~(bit << ((cell & 31) << 1));
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        out.writeInt(mWidth);
+        out.writeInt(mHeight);
+        out.writeLongArray(mWalls);
+    }
+
+    private void readFromParcel(Parcel in) {
+        mWidth = in.readInt();
+        mHeight = in.readInt();
+        mWalls = in.createLongArray();
+    }
+
+    /**
+     * Constructor to use when re-constructing object from a parcel
+     * 
+     * @param in a parcel from which to read this object
+     */
+    public CompactMaze(Parcel in) {
+        readFromParcel(in);
+    }
+
+    public static final Parcelable.Creator<CompactMaze> CREATOR = new Parcelable.Creator<CompactMaze>() {
+        @Override
+        public CompactMaze createFromParcel(Parcel in) {
+            return new CompactMaze(in);
+        }
+
+        @Override
+        public CompactMaze[] newArray(int size) {
+            return new CompactMaze[size];
+        }
+    };
+}
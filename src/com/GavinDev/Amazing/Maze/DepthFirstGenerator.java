@@ -0,0 +1,59 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Recursive backtracker depth first search. Starts at a random cell in the
+ * bottom half of the maze and walks to random unvisited neighbors, removing
+ * walls along the way, backtracking when there are none. Gives long winding
+ * corridors.
+ */
+public class DepthFirstGenerator implements MazeGenerator {
+
+    @Override
+    public String getName() {
+        return MazeGenerators.DEPTH_FIRST;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // An int stack entry and a visited bit per cell.
+        return 4L * width * height + width * height / 8;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 200L * width * height;
+    }
+
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        MazeCarver carver = new MazeCarver(maze, rand, monitor);
+        carver.carveDepthFirst(MazeCarver.randomStartCell(maze, rand));
+    }
+}
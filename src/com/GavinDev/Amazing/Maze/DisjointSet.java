@@ -0,0 +1,87 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * A union-find data structure over the integers 0 to size - 1. Sets are
+ * merged by rank and find uses path halving, both without recursion, so the
+ * depth of a tree never threatens the stack and every operation is close to
+ * constant time.
+ * <p>
+ * Several threads may use one DisjointSet at the same time as long as each
+ * only unions and finds within its own group of elements, but then
+ * {@link #getSetCount()} is not reliable.
+ */
+class DisjointSet {
+    private final int[] mParent;
+    /** An upper bound on the height of each root's tree, at most log2(size). */
+    private final byte[] mRank;
+    private int mSets;
+
+    /**
+     * Creates size sets, each containing one element.
+     */
+    DisjointSet(int size) {
+        mParent = new int[size];
+        mRank = new byte[size];
+        for (int i = 0; i < size; i++) {
+            mParent[i] = i;
+        }
+        mSets = size;
+    }
+
+    /**
+     * @return The representative element of the set x is in.
+     */
+    int find(int x) {
+        while (mParent[x] != x) {
+            // Point x at its grandparent, halving the path each time it's
+            // walked.
+            mParent[x] = mParent[mParent[x]];
+            x = mParent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets containing a and b.
+     * 
+     * @return True if a and b were in different sets.
+     */
+    boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB)
+            return false;
+        if (mRank[rootA] < mRank[rootB]) {
+            mParent[rootA] = rootB;
+        } else if (mRank[rootA] > mRank[rootB]) {
+            mParent[rootB] = rootA;
+        } else {
+            mParent[rootB] = rootA;
+            mRank[rootA]++;
+        }
+        mSets--;
+        return true;
+    }
+
+    /**
+     * @return The number of disjoint sets left.
+     */
+    int getSetCount() {
+        return mSets;
+    }
+}
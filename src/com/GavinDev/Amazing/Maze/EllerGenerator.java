@@ -0,0 +1,78 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Eller's algorithm as a MazeGenerator. Streams the rows of an
+ * {@link EllerMazeGenerator} into the CompactMaze as they're made, so the
+ * only working memory is a few arrays the width of the maze. Its mazes have
+ * a slight bias toward horizontal passages, and it is in the low memory tier
+ * of MazeGenerators.
+ */
+public class EllerGenerator implements MazeGenerator {
+
+    @Override
+    public String getName() {
+        return MazeGenerators.ELLER;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(width)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // Five int arrays and two boolean arrays the width of the maze.
+        return 22L * width;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 80L * width * height;
+    }
+
+    /**
+     * Generates a perfect maze. The monitor is told about progress after each
+     * row.
+     */
+    @Override
+    public void generate(final CompactMaze maze, Random rand, final GenerationMonitor monitor) {
+        final int height = maze.getHeight();
+        new EllerMazeGenerator(maze.getWidth(), rand).generate(height,
+                new EllerMazeGenerator.RowCallback() {
+                    @Override
+                    public void onRow(int row, boolean[] rightWalls, boolean[] bottomWalls) {
+                        int cell = maze.cellAt(0, row);
+                        for (int x = 0; x < rightWalls.length; x++, cell++) {
+                            if (!rightWalls[x])
+                                maze.carve(cell, CompactMaze.EAST);
+                            if (!bottomWalls[x])
+                                maze.carve(cell, CompactMaze.SOUTH);
+                        }
+                        if (monitor != null)
+                            monitor.onProgress(row + 1, height);
+                    }
+                });
+    }
+}
@@ -0,0 +1,180 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Generates a perfect maze one row at a time with Eller's algorithm. Only the
+ * current row is kept, so memory is proportional to the width of the maze and
+ * each row can be drawn or written out as soon as it's made, however tall the
+ * maze is.
+ * <p>
+ * Every cell of the current row has a label naming the set of cells it's
+ * connected to through the rows above. Walls to the right are removed at
+ * random between cells of different sets, then each set gets at least one
+ * opening down so it continues into the next row. The last row joins every
+ * set that is left.
+ */
+public class EllerMazeGenerator {
+
+    /**
+     * Receives the rows of a maze in order from the top.
+     */
+    public interface RowCallback {
+        /**
+         * Called once for each row of the maze. The arrays are reused for the
+         * next row, so copy them if they're needed later.
+         * 
+         * @param row The index of the row, starting at 0 for the top row.
+         * @param rightWalls rightWalls[x] is true iff there is a wall to the
+         *            right of cell x. Always true for the last cell.
+         * @param bottomWalls bottomWalls[x] is true iff there is a wall below
+         *            cell x. Always true on the last row.
+         */
+        void onRow(int row, boolean[] rightWalls, boolean[] bottomWalls);
+    }
+
+    private final int mWidth;
+    private final Random mRand;
+
+    /** The set label of each cell of the current row, from 0 to mWidth - 1. */
+    private final int[] mLabels;
+    /** A union-find over the labels of the current row. */
+    private final int[] mParent;
+    /** The number of cells in each set, and the cell that must open down. */
+    private final int[] mCount;
+    private final int[] mChosen;
+    /** The label in the next row of each set that continues down. */
+    private final int[] mRemap;
+    private final boolean[] mRightWalls;
+    private final boolean[] mBottomWalls;
+
+    public EllerMazeGenerator(int width, Random rand) {
+        if (width <= 0)
+            throw new IllegalArgumentException("Invalid maze width");
+        mWidth = width;
+        mRand = rand;
+        mLabels = new int[width];
+        mParent = new int[width];
+        mCount = new int[width];
+        mChosen = new int[width];
+        mRemap = new int[width];
+        mRightWalls = new boolean[width];
+        mBottomWalls = new boolean[width];
+    }
+
+    /**
+     * Generates a maze with the given number of rows, passing each row to the
+     * callback as soon as it's made.
+     */
+    public void generate(int height, RowCallback callback) {
+        if (height <= 0)
+            throw new IllegalArgumentException("Invalid maze height");
+        for (int x = 0; x < mWidth; x++) {
+            mLabels[x] = x;
+        }
+        for (int row = 0; row < height; row++) {
+            boolean lastRow = row == height - 1;
+            joinRow(lastRow);
+            if (lastRow) {
+                for (int x = 0; x < mWidth; x++) {
+                    mBottomWalls[x] = true;
+                }
+            } else {
+                openDown();
+            }
+            callback.onRow(row, mRightWalls, mBottomWalls);
+        }
+    }
+
+    /**
+     * Generates a whole maze into a CompactMaze.
+     * 
+     * @see EllerGenerator
+     */
+    public static CompactMaze generate(int width, int height, Random rand) {
+        CompactMaze maze = new CompactMaze(width, height);
+        new EllerGenerator().generate(maze, rand, null);
+        return maze;
+    }
+
+    /**
+     * Removes walls to the right between cells of different sets, at random
+     * or always on the last row, and merges their sets.
+     */
+    private void joinRow(boolean lastRow) {
+        for (int i = 0; i < mWidth; i++) {
+            mParent[i] = i;
+        }
+        for (int x = 0; x < mWidth - 1; x++) {
+            int a = find(mLabels[x]);
+            int b = find(mLabels[x + 1]);
+            if (a != b && (lastRow || mRand.nextBoolean())) {
+                mRightWalls[x] = false;
+                mParent[b] = a;
+            } else {
+                mRightWalls[x] = true;
+            }
+        }
+        mRightWalls[mWidth - 1] = true;
+    }
+
+    /**
+     * Removes walls below the current row, at least one for every set, and
+     * labels the next row. Cells below an opening keep the set of the cell
+     * above them, the rest get new sets.
+     */
+    private void openDown() {
+        for (int i = 0; i < mWidth; i++) {
+            mCount[i] = 0;
+            mRemap[i] = -1;
+        }
+        // Choose one cell of each set uniformly at random to open down, by
+        // reservoir sampling.
+        for (int x = 0; x < mWidth; x++) {
+            int root = find(mLabels[x]);
+            mCount[root]++;
+            if (mRand.nextInt(mCount[root]) == 0)
+                mChosen[root] = x;
+        }
+        // Relabel so the labels of the next row are 0 to mWidth - 1 again.
+        int nextLabel = 0;
+        for (int x = 0; x < mWidth; x++) {
+            int root = find(mLabels[x]);
+            mBottomWalls[x] = x != mChosen[root] && mRand.nextBoolean();
+            if (!mBottomWalls[x]) {
+                if (mRemap[root] < 0)
+                    mRemap[root] = nextLabel++;
+                mLabels[x] = mRemap[root];
+            } else {
+                mLabels[x] = -1;
+            }
+        }
+        for (int x = 0; x < mWidth; x++) {
+            if (mLabels[x] < 0)
+                mLabels[x] = nextLabel++;
+        }
+    }
+
+    private int find(int label) {
+        while (mParent[label] != label) {
+            mParent[label] = mParent[mParent[label]];
+            label = mParent[label];
+        }
+        return label;
+    }
+}
@@ -0,0 +1,77 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * The active cells of a growing tree maze. Any cell can be looked at and
+ * removed in constant time: the oldest or newest cell is removed by moving the
+ * head or tail, any other cell is replaced by the oldest one. At most
+ * capacity cells are ever added, so the array never has to grow.
+ * <p>
+ * get(size() - 1) is always the newest cell. The cells are only kept in the
+ * order they were added until a cell is removed from the middle: the oldest
+ * cell then moves into the gap, and get(0) is the oldest of the cells that
+ * haven't moved. So a policy that weights both random and oldest picks finds
+ * the oldest cells a little less often than its weights say, once they have
+ * moved only a random pick reaches them. Newest and random picks are exact.
+ */
+class Frontier {
+    private final int[] mCells;
+    /** The index in mCells of the oldest cell. */
+    private int mHead;
+    /** One past the index in mCells of the newest cell. */
+    private int mTail;
+
+    /**
+     * @param capacity The most cells that will ever be added.
+     */
+    Frontier(int capacity) {
+        mCells = new int[capacity];
+    }
+
+    void add(int cell) {
+        mCells[mTail++] = cell;
+    }
+
+    int size() {
+        return mTail - mHead;
+    }
+
+    boolean isEmpty() {
+        return mTail == mHead;
+    }
+
+    /**
+     * @param index 0 for the oldest cell up to size() - 1 for the newest.
+     * @return The id of the cell at index.
+     */
+    int get(int index) {
+        return mCells[mHead + index];
+    }
+
+    /**
+     * Removes the cell at index. Any cell but the oldest or newest is replaced
+     * by the oldest cell.
+     */
+    void remove(int index) {
+        if (index == size() - 1) {
+            mTail--;
+        } else {
+            mCells[mHead + index] = mCells[mHead];
+            mHead++;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Told about the progress of a maze being generated, and able to stop it.
+ */
+public interface GenerationMonitor {
+    /**
+     * Generators call {@link #onProgress(int, int)} about once every this many
+     * steps. A power of 2.
+     */
+    int STEPS_PER_CHECK = 1024;
+
+    /**
+     * Called from the generating thread as the maze is generated.
+     * 
+     * @param done The number of steps done so far.
+     * @param total The number of steps there will be, roughly.
+     * @throws CancellationException to stop generating the maze.
+     */
+    void onProgress(int done, int total);
+}
@@ -0,0 +1,69 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * The growing tree algorithm. Grows the maze from a list of active cells,
+ * starting with a random cell in the bottom half of the maze, and the
+ * {@link GrowingTreePolicy} decides which active cell grows next.
+ */
+public class GrowingTreeGenerator implements MazeGenerator {
+    private final String mName;
+    private final GrowingTreePolicy mPolicy;
+
+    /**
+     * @param name The name to register the generator under.
+     * @param policy Picks the active cell to grow from.
+     */
+    public GrowingTreeGenerator(String name, GrowingTreePolicy policy) {
+        mName = name;
+        mPolicy = policy;
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // An int frontier entry and a visited bit per cell.
+        return 4L * width * height + width * height / 8;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 250L * width * height;
+    }
+
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        MazeCarver carver = new MazeCarver(maze, rand, monitor);
+        carver.carveGrowingTree(MazeCarver.randomStartCell(maze, rand), mPolicy);
+    }
+}
@@ -0,0 +1,95 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Decides which active cell a growing tree maze grows from next. Each step
+ * picks the newest cell, a random cell or the oldest cell with probability
+ * proportional to the given weights. Always picking the newest cell gives the
+ * long corridors of a depth first search, always picking a random cell gives
+ * the short dead ends of Prim's algorithm.
+ * <p>
+ * A policy can instead keep growing from the cell it last carved into until
+ * that cell has no unvisited neighbors, and only then use the weights to pick
+ * the cell to grow from next. That gives far fewer dead ends than picking on
+ * every step with the same weights.
+ */
+public class GrowingTreePolicy {
+    public static final GrowingTreePolicy NEWEST = new GrowingTreePolicy(1, 0, 0);
+    public static final GrowingTreePolicy RANDOM = new GrowingTreePolicy(0, 1, 0);
+    public static final GrowingTreePolicy OLDEST = new GrowingTreePolicy(0, 0, 1);
+    /**
+     * Grows until stuck, then picks half newest, half random. Used for medium
+     * difficulty mazes.
+     */
+    public static final GrowingTreePolicy MEDIUM = new GrowingTreePolicy(1, 1, 0, true);
+
+    private final int mNewestWeight;
+    private final int mRandomWeight;
+    private final int mOldestWeight;
+    private final boolean mGrowUntilStuck;
+
+    /**
+     * Creates a policy that picks the cell to grow from on every step.
+     */
+    public GrowingTreePolicy(int newestWeight, int randomWeight, int oldestWeight) {
+        this(newestWeight, randomWeight, oldestWeight, false);
+    }
+
+    /**
+     * @param growUntilStuck True to keep growing from the cell last carved
+     *            into until it has no unvisited neighbors, and only pick with
+     *            the weights then.
+     */
+    public GrowingTreePolicy(int newestWeight, int randomWeight, int oldestWeight,
+            boolean growUntilStuck) {
+        if (newestWeight < 0 || randomWeight < 0 || oldestWeight < 0
+                || newestWeight + randomWeight + oldestWeight <= 0)
+            throw new IllegalArgumentException("Invalid weights");
+        mNewestWeight = newestWeight;
+        mRandomWeight = randomWeight;
+        mOldestWeight = oldestWeight;
+        mGrowUntilStuck = growUntilStuck;
+    }
+
+    /**
+     * @return True if the cell last carved into is grown from until it has no
+     *         unvisited neighbors.
+     */
+    boolean growsUntilStuck() {
+        return mGrowUntilStuck;
+    }
+
+    /**
+     * @param size The number of cells in the frontier, at least 1.
+     * @param rand The source of randomness.
+     * @return The index of the chosen cell in the Frontier, 0 for the oldest
+     *         up to size - 1 for the newest.
+     * @see Frontier for how exactly the oldest cell is picked.
+     */
+    int select(int size, Random rand) {
+        int total = mNewestWeight + mRandomWeight + mOldestWeight;
+        int r = total == 1 ? 0 : rand.nextInt(total);
+        if (r < mNewestWeight)
+            return size - 1;
+        else if (r < mNewestWeight + mRandomWeight)
+            return rand.nextInt(size);
+        else
+            return 0;
+    }
+}
@@ -0,0 +1,51 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * The growing tree algorithm one wall at a time. Grows the maze from a list of
+ * active cells chosen by a {@link GrowingTreePolicy}, starting with a random
+ * cell in the bottom half of the maze.
+ */
+public class GrowingTreeStepGenerator extends StepMazeGenerator {
+    private final MazeCarver mCarver;
+
+    public GrowingTreeStepGenerator(int width, int height, GrowingTreePolicy policy,
+            Random rand) {
+        super(width, height);
+        mCarver = new MazeCarver(getMaze(), rand, null);
+        mCarver.startGrowingTree(MazeCarver.randomStartCell(getMaze(), rand), policy);
+    }
+
+    @Override
+    public int step(int budget, int[] carved) {
+        int count = 0;
+        while (count < budget) {
+            int edge = mCarver.growStep();
+            if (edge < 0)
+                break;
+            carved[count++] = edge;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mCarver.isGrowingTreeFinished();
+    }
+}
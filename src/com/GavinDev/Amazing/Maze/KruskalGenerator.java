@@ -0,0 +1,101 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Kruskal's algorithm. Walks the inside walls in a random order and removes
+ * each wall between two cells that are not connected yet, tracking the
+ * connected cells in a DisjointSet. Gives many short dead ends.
+ */
+public class KruskalGenerator implements MazeGenerator {
+
+    @Override
+    public String getName() {
+        return MazeGenerators.KRUSKAL;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n log* n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // Two int edges, an int parent and a byte rank per cell.
+        return 13L * width * height;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 400L * width * height;
+    }
+
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        int[] edges = shuffledEdges(maze, rand);
+        int numOfEdges = edges.length;
+        DisjointSet sets = new DisjointSet(maze.getCellCount());
+        for (int i = 0; i < numOfEdges && sets.getSetCount() > 1; i++) {
+            if (monitor != null && (i & (GenerationMonitor.STEPS_PER_CHECK - 1)) == 0)
+                monitor.onProgress(i, numOfEdges);
+            int cell = CompactMaze.edgeCell(edges[i]);
+            int direction = CompactMaze.edgeDirection(edges[i]);
+            // If the two cells the wall is between are not connected by a
+            // path, delete the wall and union the cell's partitions.
+            if (sets.union(cell, maze.neighbor(cell, direction)))
+                maze.carve(cell, direction);
+        }
+    }
+
+    /**
+     * @return The edges of every inside wall of the maze in a random order,
+     *         see {@link CompactMaze#edgeOf(int, int)}. The same Random gives
+     *         the same order, so the step-wise and one-shot generators agree.
+     */
+    static int[] shuffledEdges(CompactMaze maze, Random rand) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] edges = new int[2 * width * height - width - height];
+        int numOfEdges = 0;
+        for (int cell = 0; cell < maze.getCellCount(); cell++) {
+            if (maze.neighbor(cell, CompactMaze.EAST) >= 0)
+                edges[numOfEdges++] = maze.edgeOf(cell, CompactMaze.EAST);
+            if (maze.neighbor(cell, CompactMaze.SOUTH) >= 0)
+                edges[numOfEdges++] = maze.edgeOf(cell, CompactMaze.SOUTH);
+        }
+        shuffle(edges, numOfEdges, rand);
+        return edges;
+    }
+
+    /**
+     * Shuffles the first count edges with a Fisher-Yates shuffle.
+     */
+    static void shuffle(int[] edges, int count, Random rand) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int temp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = temp;
+        }
+    }
+}
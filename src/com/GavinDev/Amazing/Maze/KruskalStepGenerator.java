@@ -0,0 +1,57 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * Kruskal's algorithm one wall at a time. The shuffled inside walls are
+ * walked in order, each wall between two cells that are not yet connected is
+ * removed.
+ */
+public class KruskalStepGenerator extends StepMazeGenerator {
+    private final int[] mEdges;
+    private final DisjointSet mSets;
+    /** The index in mEdges of the next wall to look at. */
+    private int mNext;
+
+    public KruskalStepGenerator(int width, int height, Random rand) {
+        super(width, height);
+        mEdges = KruskalGenerator.shuffledEdges(getMaze(), rand);
+        mSets = new DisjointSet(getMaze().getCellCount());
+    }
+
+    @Override
+    public int step(int budget, int[] carved) {
+        CompactMaze maze = getMaze();
+        int count = 0;
+        while (count < budget && !isFinished()) {
+            int edge = mEdges[mNext++];
+            int cell = CompactMaze.edgeCell(edge);
+            int direction = CompactMaze.edgeDirection(edge);
+            if (mSets.union(cell, maze.neighbor(cell, direction))) {
+                maze.carve(cell, direction);
+                carved[count++] = edge;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mSets.getSetCount() == 1 || mNext == mEdges.length;
+    }
+}
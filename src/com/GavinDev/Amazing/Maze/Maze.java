@@ -18,14 +18,7 @@ package com.GavinDev.Amazing.Maze;
 import android.os.Parcel;
 import android.os.Parcelable;
 
-import com.GavinDev.Amazing.UI.GameActivity;
-
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Deque;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
@@ -34,261 +27,134 @@ public class Maze implements Parcelable {
     private int mHeight; // The number of cells per column
     private Cell[] mCells; // An array of the cells in row major order
     private List<Wall> mWalls;
-    private Random mRand = new Random();
+    private long mSeed;
 
     public Maze(int width, int height, int mazeType) {
-        mWidth = width;
-        mHeight = height;
-        int id = 0;
-        mCells = new Cell[width * height];
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                mCells[i * width + j] = new Cell(id, i, j);
-                id++;
-            }
-        }
-        switch (mazeType) {
-            case GameActivity.PERFECT_MAZE:
-                kruskalMaze();
-                break;
-            case GameActivity.DFS_MAZE:
-                dfsMaze();
-                break;
-            case GameActivity.GROWING_TREE_MAZE:
-                growingTreeMaze();
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid mazeType");
-        }
+        this(width, height, mazeType, new Random().nextLong());
+    }
 
-        // Set the start and finish cells.
-        mCells[0].setType(Cell.START_CELL);
-        mCells[mCells.length - 1].setType(Cell.END_CELL);
+    /**
+     * Creates a maze of the given type. The same seed, size and type always
+     * give the same maze, as long as there is memory for the type's generator.
+     */
+    public Maze(int width, int height, int mazeType, long seed) {
+        this(width, height, mazeType, seed, null);
     }
 
     /**
-     * Creates a maze using a union-find algorithm. Also known as Kruskal's
-     * algorithm. Puts each cell into it's own set, randomly removes walls
-     * between distinct sets and merges the sets. Uses a union/find data
-     * structure to efficiently combine sets.
+     * Creates a maze of the given type, reporting progress to the monitor. If
+     * the VM is too short of memory for the type's generator, a low memory
+     * generator is used instead, see
+     * {@link MazeGenerators#forType(int, int, int)}.
+     * 
+     * @throws java.util.concurrent.CancellationException if the monitor
+     *             cancels generation.
      */
-    private void kruskalMaze() {
-        makeAllWalls();
-        Collections.shuffle(mWalls);
-        for (Iterator<Wall> iterator = mWalls.iterator(); iterator.hasNext();) {
-            Wall wall = iterator.next();
-            // Avoid the walls on the boundary
-            if (wall.getCell1() != null && wall.getCell2() != null) {
-                if (find(wall.getCell1()).ref.id != find(wall.getCell2()).ref.id) {
-                    // The two cells the wall is between are not connected
-                    // by a path, so delete the wall and union the cell's
-                    // partitions.
-                    union(wall.getCell1(), wall.getCell2());
-                    iterator.remove();
-                }
-            }
-        }
+    public Maze(int width, int height, int mazeType, long seed, GenerationMonitor monitor) {
+        this(width, height, MazeGenerators.forType(mazeType, width, height), seed, monitor);
     }
 
     /**
-     * Recursive backtracker Depth First Search algorithm. Starts at a random
-     * cell in the bottom half of the maze and traverse to unvisited neighbors
-     * removing walls along the way. If there are no unvisited neighbors then
-     * backtrack until one is found or if none are found pick a random unvisited
-     * cell and recurse until all cells are visited.
+     * Creates a growing tree maze that picks the next cell to grow from with
+     * the given policy and a random seed.
      */
-    private void dfsMaze() {
-        makeAllWalls();
-        Deque<Cell> stack = new ArrayDeque<Cell>();
-        // Make the initial cell the current cell and mark it as visited
-        Cell currentCell = mCells[mCells.length / 2 + mRand.nextInt(mCells.length / 2)];
-        // Make a copy of the cells and shuffle it.
-        Cell[] shuffledCells = mCells.clone();
-        Collections.shuffle(Arrays.asList(shuffledCells));
-        currentCell.markVisited();
-        Cell nextCell = null;
-        int numOfUnvisitedCells = mWidth * mHeight - 1;
-        // While there are unvisited cells
-        while (numOfUnvisitedCells > 0) {
-            // If the current cell has any neighbors which have not been visited
-            // Choose randomly one of the unvisited neighbors
-            nextCell = getRandomUnvistedNeighbor(currentCell);
-            if (nextCell != null) {
-                // Push the current cell to the stack
-                stack.addFirst(currentCell);
-                // Remove the wall between the current cell and the chosen cell
-                mWalls.remove(new Wall(currentCell, nextCell));
-                // Make the chosen cell the current cell and mark it as visited
-                currentCell = nextCell;
-                currentCell.markVisited();
-                numOfUnvisitedCells--;
-            } else if (!stack.isEmpty()) {
-                // Pop a cell from the stack and make it the current cell
-                currentCell = stack.removeFirst();
-            } else {
-                // Pick a random unvisited cell, make it the current cell and
-                // mark it as visited
-                for (Cell c : shuffledCells) {
-                    if (c.isUnvisited()) {
-                        currentCell = c;
-                        currentCell.markVisited();
-                        numOfUnvisitedCells--;
-                        break;
-                    }
+    public Maze(int width, int height, GrowingTreePolicy policy) {
+        this(width, height, policy, new Random().nextLong());
+    }
 
-                }
-            }
-        }
+    /**
+     * Creates a growing tree maze that picks the next cell to grow from with
+     * the given policy. The same seed, size and policy always give the same
+     * maze.
+     */
+    public Maze(int width, int height, GrowingTreePolicy policy, long seed) {
+        this(width, height, new GrowingTreeGenerator(MazeGenerators.GROWING_TREE, policy), seed,
+                null);
     }
 
     /**
-     * Very similar to the DFS algorithm. The difference is when the algorithm
-     * backtracks there is a 50% chance that it will backtrack to the most
-     * recently visited cell and a 50% chance it will backtrack to a random cell
-     * on the stack of visited cells.
+     * Creates a maze with any generator, e.g. one from {@link MazeGenerators}.
+     * The same generator, seed and size always give the same maze.
+     * 
+     * @param monitor Told about progress, may be null.
+     * @throws java.util.concurrent.CancellationException if the monitor
+     *             cancels generation.
      */
-    private void growingTreeMaze() {
-        makeAllWalls();
-        Deque<Cell> stack = new ArrayDeque<Cell>();
-        // Make the initial cell the current cell and mark it as visited
-        Cell currentCell = mCells[mCells.length / 2 + mRand.nextInt(mCells.length / 2)];
-        // Make a copy of the cells and shuffle it.
-        Cell[] shuffledCells = mCells.clone();
-        Collections.shuffle(Arrays.asList(shuffledCells));
-        currentCell.markVisited();
-        Cell nextCell = null;
-        int numOfUnvisitedCells = mWidth * mHeight - 1;
-        // While there are unvisited cells
-        while (numOfUnvisitedCells > 0) {
-            // If the current cell has any neighbors which have not been visited
-            // Choose randomly one of the unvisited neighbors
-            nextCell = getRandomUnvistedNeighbor(currentCell);
-            if (nextCell != null) {
-                // Push the current cell to the stack
-                stack.addFirst(currentCell);
-                // Remove the wall between the current cell and the chosen cell
-                mWalls.remove(new Wall(currentCell, nextCell));
-                // Make the chosen cell the current cell and mark it as visited
-                currentCell = nextCell;
-                currentCell.markVisited();
-                numOfUnvisitedCells--;
-            } else if (!stack.isEmpty()) {
-                // 50/50 chance to pop the first cell or pop a random cell
-                if (mRand.nextBoolean()) {
-                    // Pop a cell from the stack and make it the current cell
-                    currentCell = stack.removeFirst();
-                } else {
-                    // Choose a random cell from the stack and make it the
-                    // current cell
-                    currentCell = (Cell) stack.toArray()[mRand.nextInt(stack.size())];
-                }
-            } else {
-                // Pick a unvisited cell, make it the current cell and mark it
-                // as visited
-                for (Cell c : shuffledCells) {
-                    if (c.isUnvisited()) {
-                        currentCell = c;
-                        currentCell.markVisited();
-                        numOfUnvisitedCells--;
-                        break;
-                    }
+    public Maze(int width, int height, MazeGenerator generator, long seed,
+            GenerationMonitor monitor) {
+        this(generate(width, height, generator, seed, monitor));
+        mSeed = seed;
+    }
 
-                }
-            }
-        }
+    private static CompactMaze generate(int width, int height, MazeGenerator generator,
+            long seed, GenerationMonitor monitor) {
+        CompactMaze compact = new CompactMaze(width, height);
+        generator.generate(compact, new Random(seed), monitor);
+        return compact;
     }
 
     /**
-     * Makes all walls in a maze, i.e. a grid. Useful for maze generation
-     * algorithms that delete walls.
+     * Creates the Cell and Wall objects for a maze that was generated as a
+     * CompactMaze, so it can be drawn and played. The walls are listed in the
+     * same order as the grid they were carved from, boundary walls first.
      */
-    private void makeAllWalls() {
-        mWalls = new ArrayList<Wall>(2 * mWidth * mHeight + mWidth + mHeight);
-        for (int j = 0; j < mWidth; j++) {
-            // Add walls on the top and bottom
-            mWalls.add(new Wall(mCells[j], null));
-            mWalls.add(new Wall(mCells[(mHeight - 1) * mWidth + j], null));
-        }
-        for (int i = 0; i < mHeight; i++) {
-            // Add walls on the left and right
-            mWalls.add(new Wall(mCells[i * mWidth], null));
-            mWalls.add(new Wall(mCells[i * mWidth + (mWidth - 1)], null));
-        }
+    public Maze(CompactMaze compact) {
+        mWidth = compact.getWidth();
+        mHeight = compact.getHeight();
+        makeCells();
+        makeWalls(compact);
+        mCells[0].setType(Cell.START_CELL);
+        mCells[mCells.length - 1].setType(Cell.END_CELL);
+    }
 
-        // Add the walls on the inside of the maze.
+    private void makeCells() {
+        int id = 0;
+        mCells = new Cell[mWidth * mHeight];
         for (int i = 0; i < mHeight; i++) {
             for (int j = 0; j < mWidth; j++) {
-                // add wall to the right if there is space
-                if (j + 1 < mWidth) {
-                    mWalls.add(new Wall(mCells[i * mWidth + j], mCells[i * mWidth + (j + 1)]));
-                }
-
-                // add wall to the bottom if there is space
-                if (i + 1 < mHeight) {
-                    mWalls.add(new Wall(mCells[i * mWidth + j], mCells[(i + 1) * mWidth + j]));
-                }
+                mCells[i * mWidth + j] = new Cell(id, i, j);
+                id++;
             }
         }
     }
 
     /**
-     * Unions the two sets that cell1 and cell2 are members of.
+     * Makes the Wall objects for the walls of a CompactMaze of the same size:
+     * the boundary walls, then the walls to the right of and below each cell
+     * in row major order.
      */
-    private void union(Cell cell1, Cell cell2) {
-        Cell ref1 = find(cell1);
-        Cell ref2 = find(cell2);
-        if (ref1.rank > ref2.rank)
-            ref2.ref = ref1;
-        else if (ref1.rank < ref2.rank)
-            ref1.ref = ref2;
-        else if (!ref1.equals(ref2)) {
-            ref2.ref = ref1;
-            ref1.rank++;
+    private void makeWalls(CompactMaze compact) {
+        makeBoundaryWalls(compact.countWalls());
+        for (int i = 0; i < mHeight; i++) {
+            for (int j = 0; j < mWidth; j++) {
+                int cell = i * mWidth + j;
+                if (j + 1 < mWidth && compact.hasWall(cell, CompactMaze.EAST)) {
+                    mWalls.add(new Wall(mCells[cell], mCells[cell + 1]));
+                }
+                if (i + 1 < mHeight && compact.hasWall(cell, CompactMaze.SOUTH)) {
+                    mWalls.add(new Wall(mCells[cell], mCells[cell + mWidth]));
+                }
+            }
         }
     }
 
     /**
-     * Returns the representative cell of the set cell belongs to and performs
-     * path compression along the way.
+     * Starts a new list of walls with the walls on the boundary of the maze.
+     * 
+     * @param capacity The number of walls the list is expected to hold.
      */
-    private Cell find(Cell cell) {
-        if (cell.id != cell.ref.id) {
-            cell.ref = find(cell.ref);
-            return cell.ref;
-        } else
-            return cell;
-    }
-
-    private List<Cell> getNeighborCells(Cell cell) {
-        List<Cell> neighbors = new ArrayList<Cell>(4);
-        if (cell.coordinates.y != 0) {
-            // Cell is not in the left column
-            neighbors.add(mCells[cell.coordinates.x * mWidth + (cell.coordinates.y - 1)]);
-        }
-        if (cell.coordinates.y != mWidth - 1) {
-            // Cell is not in the right column
-            neighbors.add(mCells[cell.coordinates.x * mWidth + (cell.coordinates.y + 1)]);
-        }
-        if (cell.coordinates.x != 0) {
-            // Cell is not in the top row
-            neighbors.add(mCells[(cell.coordinates.x - 1) * mWidth + cell.coordinates.y]);
-        }
-        if (cell.coordinates.x != mHeight - 1) {
-            // Cell is not in the bottom row
-            neighbors.add(mCells[(cell.coordinates.x + 1) * mWidth + cell.coordinates.y]);
+    private void makeBoundaryWalls(int capacity) {
+        mWalls = new ArrayList<Wall>(capacity);
+        for (int j = 0; j < mWidth; j++) {
+            // Add walls on the top and bottom
+            mWalls.add(new Wall(mCells[j], null));
+            mWalls.add(new Wall(mCells[(mHeight - 1) * mWidth + j], null));
         }
-        return neighbors;
-    }
-
-    private Cell getRandomUnvistedNeighbor(Cell cell) {
-        List<Cell> neighbors = getNeighborCells(cell);
-        Collections.shuffle(neighbors);
-
-        for (Cell c : neighbors) {
-            if (c.isUnvisited())
-                return c;
+        for (int i = 0; i < mHeight; i++) {
+            // Add walls on the left and right
+            mWalls.add(new Wall(mCells[i * mWidth], null));
+            mWalls.add(new Wall(mCells[i * mWidth + (mWidth - 1)], null));
         }
-        return null;
     }
 
     /**
@@ -309,6 +175,14 @@ public class Maze implements Parcelable {
         return null;
     }
 
+    /**
+     * @return The seed the maze was generated from, 0 for a maze converted
+     *         from a CompactMaze.
+     */
+    public long getSeed() {
+        return mSeed;
+    }
+
     public int getWidth() {
         return mWidth;
     }
@@ -334,6 +208,7 @@ public class Maze implements Parcelable {
     public void writeToParcel(Parcel out, int flags) {
         out.writeInt(mWidth);
         out.writeInt(mHeight);
+        out.writeLong(mSeed);
         out.writeTypedArray(mCells, flags);
         out.writeList(mWalls);
 
@@ -342,6 +217,7 @@ public class Maze implements Parcelable {
     private void readFromParcel(Parcel in) {
         mWidth = in.readInt();
         mHeight = in.readInt();
+        mSeed = in.readLong();
         in.readTypedArray(mCells, Cell.CREATOR);
         in.readList(mWalls, Wall.class.getClassLoader());
     }
@@ -0,0 +1,234 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Carves passages into a CompactMaze that starts with every wall, by walking
+ * from cell to random unvisited neighboring cell. Neighbors are found as a
+ * 4 bit mask with one bit per direction, visited cells are kept in a BitSet
+ * and the cells being walked from in one int array, a stack for a depth first
+ * search or a Frontier for a growing tree, so carving a maze only allocates
+ * that one array.
+ */
+class MazeCarver {
+    private final CompactMaze mMaze;
+    private final Random mRand;
+    private final GenerationMonitor mMonitor;
+    private final BitSet mVisited;
+    private int mVisitedCount;
+    /** The active cells of a growing tree, null until one is started. */
+    private Frontier mFrontier;
+    private GrowingTreePolicy mPolicy;
+    /**
+     * The cell being grown from until it's stuck, for policies that grow
+     * until stuck, otherwise -1. It's not in the frontier.
+     */
+    private int mCurrent = -1;
+
+    /**
+     * @param monitor Told about progress, may be null.
+     */
+    MazeCarver(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        mMaze = maze;
+        mRand = rand;
+        mMonitor = monitor;
+        mVisited = new BitSet(maze.getCellCount());
+    }
+
+    /**
+     * @return A random cell in the bottom half of the maze.
+     */
+    static int randomStartCell(CompactMaze maze, Random rand) {
+        int cells = maze.getCellCount();
+        return cells / 2 + rand.nextInt(cells - cells / 2);
+    }
+
+    /**
+     * Recursive backtracker. Walks to a random unvisited neighbor, removing
+     * the wall between, and backtracks when there are none, until every cell
+     * has been visited.
+     */
+    void carveDepthFirst(int start) {
+        // Every cell is pushed at most once so the stack never has to grow.
+        int[] stack = new int[mMaze.getCellCount()];
+        visit(start);
+        stack[0] = start;
+        int size = 1;
+        int steps = 0;
+        while (size > 0) {
+            checkProgress(steps++);
+            int cell = stack[size - 1];
+            int next = carveToRandomNeighbor(cell);
+            if (next < 0)
+                size--;
+            else
+                stack[size++] = next;
+        }
+    }
+
+    /**
+     * Growing tree. Keeps a list of active cells and lets the policy pick the
+     * one to grow from, each step or once the current cell is stuck, removing
+     * cells that have no unvisited neighbors left.
+     */
+    void carveGrowingTree(int start, GrowingTreePolicy policy) {
+        startGrowingTree(start, policy);
+        int steps = 0;
+        do {
+            checkProgress(steps++);
+        } while (growStep() >= 0);
+    }
+
+    /**
+     * Starts a growing tree from the start cell, to be grown one wall at a
+     * time by {@link #growStep()}.
+     */
+    void startGrowingTree(int start, GrowingTreePolicy policy) {
+        mPolicy = policy;
+        mFrontier = new Frontier(mMaze.getCellCount());
+        visit(start);
+        if (policy.growsUntilStuck())
+            mCurrent = start;
+        else
+            mFrontier.add(start);
+    }
+
+    /**
+     * Grows the growing tree by one wall.
+     * 
+     * @return The edge of the removed wall, see
+     *         {@link CompactMaze#edgeOf(int, int)}, or -1 if the maze is
+     *         finished.
+     */
+    int growStep() {
+        if (mPolicy.growsUntilStuck())
+            return growUntilStuckStep();
+        while (!mFrontier.isEmpty()) {
+            int index = mPolicy.select(mFrontier.size(), mRand);
+            int cell = mFrontier.get(index);
+            int next = carveToRandomNeighbor(cell);
+            if (next < 0) {
+                // Every neighbor has been visited so the cell is done.
+                mFrontier.remove(index);
+            } else {
+                mFrontier.add(next);
+                return edgeBetween(cell, next);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@link #growStep()} for policies that grow until stuck. The current cell
+     * goes into the frontier for each wall carved from it, and when it's stuck
+     * the policy picks the next current cell out of the frontier. There is
+     * one frontier entry per wall carved, so the frontier never has to grow.
+     */
+    private int growUntilStuckStep() {
+        while (mCurrent >= 0) {
+            int next = carveToRandomNeighbor(mCurrent);
+            if (next >= 0) {
+                int edge = edgeBetween(mCurrent, next);
+                mFrontier.add(mCurrent);
+                mCurrent = next;
+                return edge;
+            }
+            if (mFrontier.isEmpty()) {
+                mCurrent = -1;
+            } else {
+                int index = mPolicy.select(mFrontier.size(), mRand);
+                mCurrent = mFrontier.get(index);
+                mFrontier.remove(index);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return True once the growing tree has grown over the whole maze.
+     */
+    boolean isGrowingTreeFinished() {
+        return mCurrent < 0 && mFrontier.isEmpty();
+    }
+
+    /**
+     * Removes the wall between the cell and a random unvisited neighbor and
+     * marks the neighbor visited.
+     * 
+     * @return The neighbor, or -1 if every neighbor has been visited.
+     */
+    int carveToRandomNeighbor(int cell) {
+        int mask = unvisitedNeighbors(cell);
+        if (mask == 0)
+            return -1;
+        int direction = randomDirection(mask);
+        int next = mMaze.neighbor(cell, direction);
+        mMaze.carve(cell, direction);
+        visit(next);
+        return next;
+    }
+
+    /**
+     * @return The edge of the wall between two neighboring cells.
+     */
+    private int edgeBetween(int cell, int neighbor) {
+        int first = Math.min(cell, neighbor);
+        return Math.abs(neighbor - cell) == mMaze.getWidth() ? 2 * first + 1 : 2 * first;
+    }
+
+    void visit(int cell) {
+        mVisited.set(cell);
+        mVisitedCount++;
+    }
+
+    boolean isVisited(int cell) {
+        return mVisited.get(cell);
+    }
+
+    /**
+     * @return A mask with bit 1 << direction set for each direction that has
+     *         an unvisited neighbor.
+     */
+    int unvisitedNeighbors(int cell) {
+        int mask = 0;
+        for (int direction = CompactMaze.NORTH; direction <= CompactMaze.WEST; direction++) {
+            int neighbor = mMaze.neighbor(cell, direction);
+            if (neighbor >= 0 && !mVisited.get(neighbor))
+                mask |= 1 << direction;
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask A non zero mask from {@link #unvisitedNeighbors(int)}.
+     * @return One of the directions in the mask, chosen uniformly at random.
+     */
+    int randomDirection(int mask) {
+        // Clear a random number of the lowest set bits.
+        for (int skip = mRand.nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    private void checkProgress(int step) {
+        if (mMonitor != null && (step & (GenerationMonitor.STEPS_PER_CHECK - 1)) == 0)
+            mMonitor.onProgress(mVisitedCount, mMaze.getCellCount());
+    }
+}
@@ -0,0 +1,70 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Generates a maze when run, e.g. on an Executor, and can be waited on or
+ * cancelled from another thread. Cancelling stops the generator at its next
+ * progress check rather than letting it finish a maze no one wants.
+ * Subclasses can override {@link #done()} to hear when the maze is ready.
+ */
+public class MazeGenerationTask extends FutureTask<Maze> {
+    private final Progress mProgress;
+
+    public MazeGenerationTask(int width, int height, int mazeType, long seed) {
+        this(new Progress(), width, height, mazeType, seed);
+    }
+
+    private MazeGenerationTask(final Progress progress, final int width, final int height,
+            final int mazeType, final long seed) {
+        super(new Callable<Maze>() {
+            @Override
+            public Maze call() {
+                return new Maze(width, height, mazeType, seed, progress);
+            }
+        });
+        mProgress = progress;
+        progress.mTask = this;
+    }
+
+    /**
+     * @return How much of the maze has been generated, from 0 to 1.
+     */
+    public float getProgress() {
+        if (isDone())
+            return 1f;
+        int total = mProgress.mTotal;
+        return total == 0 ? 0f : (float) mProgress.mDone / total;
+    }
+
+    private static class Progress implements GenerationMonitor {
+        volatile MazeGenerationTask mTask;
+        volatile int mDone;
+        volatile int mTotal;
+
+        @Override
+        public void onProgress(int done, int total) {
+            mDone = done;
+            mTotal = total;
+            if (mTask.isCancelled())
+                throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Random;
+
+/**
+ * A maze generation algorithm. Generators write into a CompactMaze, so any
+ * of them can be used wherever a maze is needed, and describe their cost so
+ * one can be picked that fits a maze size and a memory or time budget.
+ * 
+ * @see MazeGenerators for the registered generators.
+ */
+public interface MazeGenerator {
+
+    /**
+     * @return The name the generator is registered under.
+     */
+    String getName();
+
+    /**
+     * @return The time complexity in the number of cells n, e.g. "O(n)".
+     */
+    String getTimeComplexity();
+
+    /**
+     * @return The working memory in the number of cells n, not counting the
+     *         CompactMaze itself, e.g. "O(n)".
+     */
+    String getMemoryComplexity();
+
+    /**
+     * @return Roughly how many bytes of working memory generating a maze of
+     *         the given size takes, not counting the CompactMaze itself.
+     */
+    long estimateBytes(int width, int height);
+
+    /**
+     * @return Roughly how many nanoseconds generating a maze of the given size
+     *         takes on a phone.
+     */
+    long estimateNanos(int width, int height);
+
+    /**
+     * Generates a perfect maze.
+     * 
+     * @param maze The maze to carve, with every wall.
+     * @param rand The source of all randomness, so a seed gives one maze.
+     * @param monitor Told about progress, may be null.
+     * @throws java.util.concurrent.CancellationException if the monitor
+     *             cancels generation.
+     */
+    void generate(CompactMaze maze, Random rand, GenerationMonitor monitor);
+}
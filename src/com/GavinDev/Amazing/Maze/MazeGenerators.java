@@ -0,0 +1,221 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import com.GavinDev.Amazing.UI.GameActivity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The registry of maze generators, keyed by name. The built in generators are
+ * registered when the class is loaded. Thread safe.
+ */
+public class MazeGenerators {
+    public static final String KRUSKAL = "kruskal";
+    public static final String DEPTH_FIRST = "depth-first";
+    public static final String GROWING_TREE = "growing-tree";
+    public static final String TILED_KRUSKAL = "tiled-kruskal";
+    /** Uniform spanning trees, every maze equally likely. */
+    public static final String WILSON = "wilson";
+    public static final String SIDEWINDER = "sidewinder";
+    public static final String BINARY_TREE = "binary-tree";
+    public static final String RECURSIVE_DIVISION = "recursive-division";
+    public static final String ELLER = "eller";
+
+    private static final Map<String, MazeGenerator> mGenerators =
+            new LinkedHashMap<String, MazeGenerator>();
+    /** The names of the generators in the easy tier. */
+    private static final Set<String> mEasy = new HashSet<String>();
+    /** The names of the generators in the low memory tier. */
+    private static final Set<String> mLowMemory = new HashSet<String>();
+
+    static {
+        register(new KruskalGenerator());
+        register(new DepthFirstGenerator());
+        register(new GrowingTreeGenerator(GROWING_TREE, GrowingTreePolicy.MEDIUM));
+        register(new TiledKruskalGenerator(Runtime.getRuntime().availableProcessors()));
+        register(new WilsonGenerator());
+        int threads = Runtime.getRuntime().availableProcessors();
+        registerEasy(new SidewinderGenerator(threads));
+        registerEasy(new BinaryTreeGenerator(threads));
+        registerLowMemory(new RecursiveDivisionGenerator());
+        registerLowMemory(new EllerGenerator());
+    }
+
+    private MazeGenerators() {
+    }
+
+    /**
+     * Adds a generator, replacing any registered under the same name.
+     */
+    public static synchronized void register(MazeGenerator generator) {
+        mGenerators.put(generator.getName(), generator);
+        mEasy.remove(generator.getName());
+        mLowMemory.remove(generator.getName());
+    }
+
+    /**
+     * Adds a generator to the easy tier: very fast generators whose mazes
+     * have an obvious bias, e.g. a corridor along one side. Replaces any
+     * generator registered under the same name.
+     */
+    public static synchronized void registerEasy(MazeGenerator generator) {
+        register(generator);
+        mEasy.add(generator.getName());
+    }
+
+    /**
+     * Adds a generator to the low memory tier: generators that need very
+     * little working memory but whose mazes have an obvious bias, e.g. long
+     * straight walls. Replaces any generator registered under the same name.
+     * 
+     * @see #choose(int, int, long, long)
+     */
+    public static synchronized void registerLowMemory(MazeGenerator generator) {
+        register(generator);
+        mLowMemory.add(generator.getName());
+    }
+
+    /**
+     * @return True if the generator registered under name is in the low
+     *         memory tier.
+     */
+    public static synchronized boolean isLowMemory(String name) {
+        return mLowMemory.contains(name);
+    }
+
+    /**
+     * @return True if the generator registered under name is in the easy
+     *         tier.
+     */
+    public static synchronized boolean isEasy(String name) {
+        return mEasy.contains(name);
+    }
+
+    /**
+     * @return The generators in the easy tier, in the order they were
+     *         registered.
+     */
+    public static synchronized List<MazeGenerator> getEasy() {
+        List<MazeGenerator> easy = new ArrayList<MazeGenerator>();
+        for (MazeGenerator generator : mGenerators.values()) {
+            if (mEasy.contains(generator.getName()))
+                easy.add(generator);
+        }
+        return easy;
+    }
+
+    /**
+     * @return The generator registered under name, or null if there is none.
+     */
+    public static synchronized MazeGenerator get(String name) {
+        return mGenerators.get(name);
+    }
+
+    /**
+     * @return Every registered generator, in the order they were registered.
+     */
+    public static synchronized List<MazeGenerator> getAll() {
+        return new ArrayList<MazeGenerator>(mGenerators.values());
+    }
+
+    /**
+     * @param mazeType One of the maze types in GameActivity.
+     * @return The generator used for the maze type.
+     */
+    public static MazeGenerator forType(int mazeType) {
+        switch (mazeType) {
+            case GameActivity.PERFECT_MAZE:
+                return get(KRUSKAL);
+            case GameActivity.DFS_MAZE:
+                return get(DEPTH_FIRST);
+            case GameActivity.GROWING_TREE_MAZE:
+                return get(GROWING_TREE);
+            default:
+                throw new IllegalArgumentException("Invalid mazeType");
+        }
+    }
+
+    /**
+     * Picks the generator for a maze type that fits in the memory the VM has
+     * left. That's the maze type's own generator unless it's estimated not to
+     * fit, then the fastest one that does, from the low memory tier if need
+     * be.
+     * 
+     * @param mazeType One of the maze types in GameActivity.
+     * @return The generator, the maze type's own if none fit.
+     */
+    public static MazeGenerator forType(int mazeType, int width, int height) {
+        MazeGenerator generator = forType(mazeType);
+        Runtime runtime = Runtime.getRuntime();
+        long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (generator.estimateBytes(width, height) <= free)
+            return generator;
+        MazeGenerator fits = choose(width, height, free, Long.MAX_VALUE);
+        return fits == null ? generator : fits;
+    }
+
+    /**
+     * Picks the fastest generator that is estimated to fit both budgets.
+     * Generators in the easy tier are never picked, their mazes are too easy
+     * to stand in for the others. Generators in the low memory tier are only
+     * picked when no other generator fits in maxBytes.
+     * 
+     * @param maxBytes The most working memory to use.
+     * @param maxNanos The most time to take.
+     * @return The generator, or null if none fit.
+     */
+    public static synchronized MazeGenerator choose(int width, int height, long maxBytes,
+            long maxNanos) {
+        boolean anyFitsMemory = false;
+        MazeGenerator best = null;
+        for (MazeGenerator generator : mGenerators.values()) {
+            String name = generator.getName();
+            if (mEasy.contains(name) || mLowMemory.contains(name)
+                    || generator.estimateBytes(width, height) > maxBytes)
+                continue;
+            anyFitsMemory = true;
+            best = faster(best, generator, width, height, maxNanos);
+        }
+        if (anyFitsMemory)
+            return best;
+        for (MazeGenerator generator : mGenerators.values()) {
+            if (mLowMemory.contains(generator.getName())
+                    && generator.estimateBytes(width, height) <= maxBytes)
+                best = faster(best, generator, width, height, maxNanos);
+        }
+        return best;
+    }
+
+    /**
+     * @return The faster of best and generator, ignoring generator if it is
+     *         estimated to take longer than maxNanos. best may be null.
+     */
+    private static MazeGenerator faster(MazeGenerator best, MazeGenerator generator, int width,
+            int height, long maxNanos) {
+        long nanos = generator.estimateNanos(width, height);
+        if (nanos > maxNanos)
+            return best;
+        if (best == null || nanos < best.estimateNanos(width, height))
+            return generator;
+        return best;
+    }
+}
@@ -0,0 +1,55 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * Identifies a maze by the seed, size and type it was generated with.
+ */
+final class MazeKey {
+    final long seed;
+    final int width;
+    final int height;
+    final int mazeType;
+
+    MazeKey(long seed, int width, int height, int mazeType) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.mazeType = mazeType;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (int) (seed ^ (seed >>> 32));
+        result = prime * result + width;
+        result = prime * result + height;
+        result = prime * result + mazeType;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof MazeKey))
+            return false;
+        MazeKey other = (MazeKey) obj;
+        return seed == other.seed && width == other.width && height == other.height
+                && mazeType == other.mazeType;
+    }
+}
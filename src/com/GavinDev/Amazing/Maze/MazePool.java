@@ -0,0 +1,127 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Keeps a few mazes of each type and size generated ahead of time, so
+ * starting a new maze doesn't have to wait for one to be generated. Mazes are
+ * made by a single low priority background thread while the player is busy
+ * with the current maze. Thread safe.
+ */
+public class MazePool {
+    /** The number of mazes kept ready for each type and size. */
+    private static final int MAZES_PER_KIND = 2;
+
+    private static MazePool mInstance;
+
+    /** Ready mazes, keyed by size and type with a seed of 0. */
+    private final Map<MazeKey, ArrayDeque<Maze>> mMazes =
+            new HashMap<MazeKey, ArrayDeque<Maze>>();
+    /** The number of mazes of each kind the worker has still to make. */
+    private final Map<MazeKey, Integer> mPending = new HashMap<MazeKey, Integer>();
+    private final Random mRand = new Random();
+    private final ExecutorService mWorker;
+
+    private MazePool() {
+        mWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "MazePool");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    public static synchronized MazePool getInstance() {
+        if (mInstance == null)
+            mInstance = new MazePool();
+        return mInstance;
+    }
+
+    /**
+     * Takes a ready maze without waiting, and asks the worker to make another.
+     * 
+     * @return A maze of the given size and type, or null if none are ready yet.
+     */
+    public synchronized Maze take(int width, int height, int mazeType) {
+        MazeKey key = new MazeKey(0, width, height, mazeType);
+        ArrayDeque<Maze> mazes = mMazes.get(key);
+        Maze maze = mazes == null ? null : mazes.pollFirst();
+        refill(key);
+        return maze;
+    }
+
+    /**
+     * Asks the worker to make mazes of the given size and type, if there are
+     * not enough ready or on their way.
+     */
+    public synchronized void prefill(int width, int height, int mazeType) {
+        refill(new MazeKey(0, width, height, mazeType));
+    }
+
+    private void refill(final MazeKey key) {
+        ArrayDeque<Maze> mazes = mMazes.get(key);
+        int pending = mPending.containsKey(key) ? mPending.get(key) : 0;
+        for (int i = (mazes == null ? 0 : mazes.size()) + pending; i < MAZES_PER_KIND; i++) {
+            final long seed = mRand.nextLong();
+            mWorker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        add(key, new Maze(key.width, key.height, key.mazeType, seed));
+                    } finally {
+                        // Even if generating failed, e.g. out of memory, so
+                        // the next take asks for it again.
+                        finished(key);
+                    }
+                }
+            });
+            pending++;
+        }
+        if (pending > 0)
+            mPending.put(key, pending);
+    }
+
+    private synchronized void add(MazeKey key, Maze maze) {
+        ArrayDeque<Maze> mazes = mMazes.get(key);
+        if (mazes == null) {
+            mazes = new ArrayDeque<Maze>(MAZES_PER_KIND);
+            mMazes.put(key, mazes);
+        }
+        mazes.addLast(maze);
+    }
+
+    /**
+     * Marks one maze of the key's kind as no longer on its way.
+     */
+    private synchronized void finished(MazeKey key) {
+        int pending = mPending.get(key) - 1;
+        if (pending == 0)
+            mPending.remove(key);
+        else
+            mPending.put(key, pending);
+    }
+}
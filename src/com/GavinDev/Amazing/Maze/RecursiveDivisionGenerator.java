@@ -0,0 +1,122 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The recursive division algorithm. Starts from one open room and splits it
+ * in two with a wall that has a single gap, then splits each half the same
+ * way until every room is a corridor one cell wide. Walls are only ever
+ * added, straight into the CompactMaze, so the only working memory is the
+ * stack of rooms still to split, which holds at most width + height rooms.
+ * Its long straight walls make it easy to solve, so it is in the low memory
+ * tier of MazeGenerators and only chosen when nothing else fits in memory.
+ * <p>
+ * The rooms are kept on an explicit stack rather than the Java stack, so a
+ * long thin maze can't overflow it.
+ */
+public class RecursiveDivisionGenerator implements MazeGenerator {
+    /** The number of ints used for each room on the stack: x, y, width, height. */
+    private static final int ROOM_SIZE = 4;
+
+    @Override
+    public String getName() {
+        return MazeGenerators.RECURSIVE_DIVISION;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n log n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(width + height)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        return 4L * ROOM_SIZE * (width + height);
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 40L * width * height;
+    }
+
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        maze.clearInsideWalls();
+        int walls = (maze.getWidth() - 1) * (maze.getHeight() - 1);
+        int added = 0;
+        int steps = 0;
+        int[] rooms = new int[ROOM_SIZE * 64];
+        int size = push(rooms, 0, 0, 0, maze.getWidth(), maze.getHeight());
+        while (size > 0) {
+            size -= ROOM_SIZE;
+            int x = rooms[size];
+            int y = rooms[size + 1];
+            int width = rooms[size + 2];
+            int height = rooms[size + 3];
+            if (width < 2 || height < 2)
+                continue;
+            if (monitor != null && (steps & (GenerationMonitor.STEPS_PER_CHECK - 1)) == 0)
+                monitor.onProgress(added, walls);
+            steps++;
+
+            boolean horizontal = width < height || (width == height && rand.nextBoolean());
+            if (rooms.length < size + 2 * ROOM_SIZE)
+                rooms = Arrays.copyOf(rooms, 2 * rooms.length);
+            if (horizontal) {
+                // A wall below row wallY with a gap below column gapX.
+                int wallY = y + rand.nextInt(height - 1);
+                int gapX = x + rand.nextInt(width);
+                for (int i = x; i < x + width; i++) {
+                    if (i != gapX)
+                        maze.setWall(maze.cellAt(i, wallY), CompactMaze.SOUTH, true);
+                }
+                size = push(rooms, size, x, y, width, wallY - y + 1);
+                size = push(rooms, size, x, wallY + 1, width, y + height - wallY - 1);
+            } else {
+                // A wall right of column wallX with a gap right of row gapY.
+                int wallX = x + rand.nextInt(width - 1);
+                int gapY = y + rand.nextInt(height);
+                for (int j = y; j < y + height; j++) {
+                    if (j != gapY)
+                        maze.setWall(maze.cellAt(wallX, j), CompactMaze.EAST, true);
+                }
+                size = push(rooms, size, x, y, wallX - x + 1, height);
+                size = push(rooms, size, wallX + 1, y, x + width - wallX - 1, height);
+            }
+            added += (horizontal ? width : height) - 1;
+        }
+    }
+
+    /**
+     * Pushes a room onto the stack.
+     * 
+     * @return The new size of the stack.
+     */
+    private static int push(int[] rooms, int size, int x, int y, int width, int height) {
+        rooms[size] = x;
+        rooms[size + 1] = y;
+        rooms[size + 2] = width;
+        rooms[size + 3] = height;
+        return size + ROOM_SIZE;
+    }
+}
@@ -0,0 +1,144 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A generator whose rows are independent of each other, so a maze can be
+ * generated one band of rows per task on several threads. Each row only
+ * carves the walls to the right of and below its own cells and gets its own
+ * SplitMix64 stream split from one seed, so the maze for a seed is the same
+ * for any number of threads.
+ * <p>
+ * Bands are a multiple of 32 rows, so every band starts at a multiple of 32
+ * cells and never shares a word of the CompactMaze with another band.
+ */
+abstract class RowMazeGenerator implements MazeGenerator {
+    /** Mazes with fewer cells than this are generated on the calling thread. */
+    static final int PARALLEL_CELLS = 1 << 16;
+    /** Roughly the number of cells in one band. */
+    private static final int CELLS_PER_BAND = 1 << 15;
+
+    private final int mThreads;
+
+    /**
+     * @param threads The number of threads to generate large mazes on.
+     */
+    RowMazeGenerator(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Invalid number of threads");
+        mThreads = threads;
+    }
+
+    /**
+     * Carves row y of the maze. Only the walls to the right of and below the
+     * cells of row y may be carved.
+     */
+    abstract void carveRow(CompactMaze maze, int y, SplitMix64 rand);
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n / threads)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(1)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        return 0;
+    }
+
+    /**
+     * Generates a perfect maze. The monitor is told about progress after each
+     * band of rows.
+     * 
+     * @throws CancellationException if the monitor cancels generation or the
+     *             thread is interrupted.
+     */
+    @Override
+    public void generate(final CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        final long seed = rand.nextLong();
+        int height = maze.getHeight();
+        final int rowsPerBand = rowsPerBand(maze.getWidth());
+        int bands = (height + rowsPerBand - 1) / rowsPerBand;
+
+        if (mThreads == 1 || maze.getCellCount() < PARALLEL_CELLS) {
+            SplitMix64 rowRand = new SplitMix64(0);
+            for (int band = 0; band < bands; band++) {
+                carveBand(maze, band * rowsPerBand, rowsPerBand, seed, rowRand);
+                if (monitor != null)
+                    monitor.onProgress(band + 1, bands);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(bands);
+            for (int band = 0; band < bands; band++) {
+                final int top = band * rowsPerBand;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        carveBand(maze, top, rowsPerBand, seed, new SplitMix64(0));
+                        return null;
+                    }
+                }));
+            }
+            for (int band = 0; band < bands; band++) {
+                futures.get(band).get();
+                if (monitor != null)
+                    monitor.onProgress(band + 1, bands);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return The smallest multiple of 32 rows with at least CELLS_PER_BAND
+     *         cells.
+     */
+    private static int rowsPerBand(int width) {
+        int rows = (CELLS_PER_BAND + width - 1) / width;
+        return (rows + 31) & ~31;
+    }
+
+    private void carveBand(CompactMaze maze, int top, int rows, long seed, SplitMix64 rand) {
+        int bottom = Math.min(top + rows, maze.getHeight());
+        for (int y = top; y < bottom; y++) {
+            rand.setSeed(SplitMix64.split(seed, y));
+            carveRow(maze, y, rand);
+        }
+    }
+}
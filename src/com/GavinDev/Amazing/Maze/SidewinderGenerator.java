@@ -0,0 +1,64 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * The sidewinder algorithm. Each row is split into random runs of cells
+ * joined left to right, and every run carves down from one random cell, so
+ * the bottom row is one long corridor but the maze has no diagonal bias.
+ * Easy, and almost as cheap as the binary tree algorithm.
+ */
+public class SidewinderGenerator extends RowMazeGenerator {
+
+    /**
+     * @param threads The number of threads to generate large mazes on.
+     */
+    public SidewinderGenerator(int threads) {
+        super(threads);
+    }
+
+    @Override
+    public String getName() {
+        return MazeGenerators.SIDEWINDER;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 15L * width * height;
+    }
+
+    @Override
+    void carveRow(CompactMaze maze, int y, SplitMix64 rand) {
+        int width = maze.getWidth();
+        int cell = y * width;
+        if (y + 1 == maze.getHeight()) {
+            for (int x = 0; x + 1 < width; x++) {
+                maze.carve(cell + x, CompactMaze.EAST);
+            }
+            return;
+        }
+        int runStart = 0;
+        for (int x = 0; x < width; x++) {
+            if (x + 1 < width && rand.nextBoolean()) {
+                maze.carve(cell + x, CompactMaze.EAST);
+            } else {
+                int down = runStart + rand.nextInt(x - runStart + 1);
+                maze.carve(cell + down, CompactMaze.SOUTH);
+                runStart = x + 1;
+            }
+        }
+    }
+}
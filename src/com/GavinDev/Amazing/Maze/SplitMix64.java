@@ -0,0 +1,80 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+/**
+ * A small, fast random number generator that can be reseeded without
+ * allocating. Used to give each row of a maze its own stream, derived from one
+ * seed, so rows can be generated in any order on any thread and still give the
+ * same maze. Not thread safe.
+ */
+final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long mState;
+    private long mBits;
+    private int mBitsLeft;
+
+    SplitMix64(long seed) {
+        setSeed(seed);
+    }
+
+    void setSeed(long seed) {
+        mState = seed;
+        mBitsLeft = 0;
+    }
+
+    /**
+     * @return The seed of the index'th stream split from seed. Nearby indices
+     *         give unrelated streams.
+     */
+    static long split(long seed, int index) {
+        return mix(seed + (index + 1L) * GOLDEN_GAMMA);
+    }
+
+    long nextLong() {
+        mState += GOLDEN_GAMMA;
+        return mix(mState);
+    }
+
+    /**
+     * @return A number from 0 to bound - 1. The bias is at most bound / 2^32,
+     *         which no maze can show.
+     */
+    int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return A random bit, 64 are taken from each number generated.
+     */
+    boolean nextBoolean() {
+        if (mBitsLeft == 0) {
+            mBits = nextLong();
+            mBitsLeft = 64;
+        }
+        mBitsLeft--;
+        boolean bit = (mBits & 1) != 0;
+        mBits >>>= 1;
+        return bit;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
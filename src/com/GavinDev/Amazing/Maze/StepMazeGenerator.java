@@ -0,0 +1,74 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import com.GavinDev.Amazing.UI.GameActivity;
+
+import java.util.Random;
+
+/**
+ * Generates a maze a few walls at a time, so the maze can be shown being
+ * carved without holding up a frame. The maze starts with every wall and
+ * {@link #step(int, int[])} removes walls until {@link #isFinished()}.
+ */
+public abstract class StepMazeGenerator {
+    private final CompactMaze mMaze;
+
+    protected StepMazeGenerator(int width, int height) {
+        mMaze = new CompactMaze(width, height);
+    }
+
+    /**
+     * Creates a step generator for a maze type.
+     * 
+     * @param mazeType One of the maze types in GameActivity.
+     */
+    public static StepMazeGenerator create(int mazeType, int width, int height, long seed) {
+        Random rand = new Random(seed);
+        switch (mazeType) {
+            case GameActivity.PERFECT_MAZE:
+                return new KruskalStepGenerator(width, height, rand);
+            case GameActivity.DFS_MAZE:
+                // A growing tree that always grows from the newest cell is a
+                // depth first search.
+                return new GrowingTreeStepGenerator(width, height, GrowingTreePolicy.NEWEST, rand);
+            case GameActivity.GROWING_TREE_MAZE:
+                return new GrowingTreeStepGenerator(width, height, GrowingTreePolicy.MEDIUM, rand);
+            default:
+                throw new IllegalArgumentException("Invalid mazeType");
+        }
+    }
+
+    /**
+     * @return The maze being generated. Complete once {@link #isFinished()}.
+     */
+    public CompactMaze getMaze() {
+        return mMaze;
+    }
+
+    /**
+     * Removes at most budget walls from the maze.
+     * 
+     * @param budget The most walls to remove.
+     * @param carved Receives the edges of the removed walls, see
+     *            {@link CompactMaze#edgeOf(int, int)}. At least budget long.
+     * @return The number of walls removed, less than budget only when the maze
+     *         is finished.
+     */
+    public abstract int step(int budget, int[] carved);
+
+    public abstract boolean isFinished();
+}
@@ -0,0 +1,226 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates very large perfect mazes with Kruskal's algorithm on several
+ * threads. The maze is split into TILE_SIZE x TILE_SIZE tiles and Kruskal's
+ * algorithm is run inside every tile, one band of tiles per task. A final
+ * single threaded pass runs Kruskal's algorithm over the walls between tiles
+ * to join the tiles into one maze.
+ * <p>
+ * A band is TILE_SIZE full rows, so it starts at a multiple of 32 cells and
+ * never shares a word of the CompactMaze with another band. The tiles only
+ * depend on the size of the maze, and each band gets its own Random seeded
+ * from the given one, so the maze for a seed is the same for any number of
+ * threads.
+ */
+public class TiledKruskalGenerator implements MazeGenerator {
+    /** The width and height of a tile in cells, a multiple of 32. */
+    public static final int TILE_SIZE = 64;
+
+    private final int mThreads;
+
+    /**
+     * @param threads The number of threads to generate tiles on.
+     */
+    public TiledKruskalGenerator(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Invalid number of threads");
+        mThreads = threads;
+    }
+
+    @Override
+    public String getName() {
+        return MazeGenerators.TILED_KRUSKAL;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        return "O(n log* n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // An int parent and a byte rank per cell, the edges of one tile per
+        // thread and the edges between tiles.
+        return 5L * width * height + 2L * mThreads * TILE_SIZE * TILE_SIZE * 4 + 2L * width
+                * height / TILE_SIZE * 4;
+    }
+
+    /**
+     * The single threaded cost. Only one core was available to measure on, so
+     * the estimate doesn't assume the tiles get any faster with more threads.
+     */
+    @Override
+    public long estimateNanos(int width, int height) {
+        return 250L * width * height + 100L * width * height / TILE_SIZE;
+    }
+
+    /**
+     * Generates a perfect maze.
+     * 
+     * @param rand Seeds the Randoms used for every tile and the final pass.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     *             for the tiles.
+     */
+    public CompactMaze generate(int width, int height, Random rand) throws InterruptedException {
+        CompactMaze maze = new CompactMaze(width, height);
+        generateTiles(maze, rand, null);
+        return maze;
+    }
+
+    /**
+     * Generates a perfect maze. The monitor is told about progress after each
+     * band of tiles.
+     * 
+     * @throws CancellationException if the monitor cancels generation or the
+     *             thread is interrupted.
+     */
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        try {
+            generateTiles(maze, rand, monitor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    private void generateTiles(final CompactMaze maze, Random rand, GenerationMonitor monitor)
+            throws InterruptedException {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        final DisjointSet sets = new DisjointSet(width * height);
+        int bands = (height + TILE_SIZE - 1) / TILE_SIZE;
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(bands);
+        for (int band = 0; band < bands; band++) {
+            final int top = band * TILE_SIZE;
+            final long seed = rand.nextLong();
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    generateBand(maze, sets, top, new Random(seed));
+                    return null;
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(bands);
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (int band = 0; band < bands; band++) {
+                futures.get(band).get();
+                if (monitor != null)
+                    monitor.onProgress(band + 1, bands + 1);
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        joinTiles(maze, sets, rand);
+    }
+
+    /**
+     * Runs Kruskal's algorithm inside each tile of the band of rows starting
+     * at top. Only touches the cells of the band.
+     */
+    private static void generateBand(CompactMaze maze, DisjointSet sets, int top,
+            Random rand) {
+        int width = maze.getWidth();
+        int bottom = Math.min(top + TILE_SIZE, maze.getHeight());
+        int[] edges = new int[2 * TILE_SIZE * TILE_SIZE];
+        for (int left = 0; left < width; left += TILE_SIZE) {
+            int right = Math.min(left + TILE_SIZE, width);
+            int numOfEdges = 0;
+            for (int y = top; y < bottom; y++) {
+                for (int x = left; x < right; x++) {
+                    int cell = y * width + x;
+                    if (x + 1 < right)
+                        edges[numOfEdges++] = 2 * cell;
+                    if (y + 1 < bottom)
+                        edges[numOfEdges++] = 2 * cell + 1;
+                }
+            }
+            int unions = (right - left) * (bottom - top) - 1;
+            kruskal(maze, sets, edges, numOfEdges, unions, rand);
+        }
+    }
+
+    /**
+     * Runs Kruskal's algorithm over the walls on the right and bottom edges of
+     * the tiles.
+     */
+    private static void joinTiles(CompactMaze maze, DisjointSet sets, Random rand) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int tilesPerRow = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesPerColumn = (height + TILE_SIZE - 1) / TILE_SIZE;
+        int[] edges = new int[(tilesPerRow - 1) * height + (tilesPerColumn - 1) * width];
+        int numOfEdges = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = TILE_SIZE - 1; x + 1 < width; x += TILE_SIZE) {
+                edges[numOfEdges++] = 2 * (y * width + x);
+            }
+        }
+        for (int y = TILE_SIZE - 1; y + 1 < height; y += TILE_SIZE) {
+            for (int x = 0; x < width; x++) {
+                edges[numOfEdges++] = 2 * (y * width + x) + 1;
+            }
+        }
+        kruskal(maze, sets, edges, numOfEdges, tilesPerRow * tilesPerColumn - 1, rand);
+    }
+
+    /**
+     * Shuffles the edges and removes the wall of each edge that joins two
+     * sets, until the given number of walls have been removed. An edge is
+     * 2 * cell for the wall to the right of a cell and 2 * cell + 1 for the
+     * wall below it.
+     */
+    private static void kruskal(CompactMaze maze, DisjointSet sets, int[] edges,
+            int numOfEdges, int unions, Random rand) {
+        KruskalGenerator.shuffle(edges, numOfEdges, rand);
+        int width = maze.getWidth();
+        for (int i = 0; i < numOfEdges && unions > 0; i++) {
+            int cell = edges[i] >>> 1;
+            boolean right = (edges[i] & 1) == 0;
+            if (sets.union(cell, right ? cell + 1 : cell + width)) {
+                maze.carve(cell, right ? CompactMaze.EAST : CompactMaze.SOUTH);
+                unions--;
+            }
+        }
+    }
+}
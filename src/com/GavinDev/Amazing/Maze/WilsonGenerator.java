@@ -0,0 +1,101 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.Maze;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Wilson's algorithm. Generates a uniform spanning tree, i.e. every possible
+ * perfect maze is equally likely, unlike the long corridors of a depth first
+ * search or the short dead ends of Kruskal's algorithm.
+ * <p>
+ * Starting from one random cell in the maze, a random walk is taken from the
+ * first cell not in the maze until it hits the maze. Each cell walked through
+ * only remembers the direction it was last left in, which erases any loops,
+ * and the walk is then retraced from its start to add its path to the maze.
+ * The first cell not in the maze is found by scanning a BitSet from where the
+ * last scan stopped.
+ */
+public class WilsonGenerator implements MazeGenerator {
+
+    @Override
+    public String getName() {
+        return MazeGenerators.WILSON;
+    }
+
+    @Override
+    public String getTimeComplexity() {
+        // The expected cover time of a random walk on a grid.
+        return "O(n log^2 n)";
+    }
+
+    @Override
+    public String getMemoryComplexity() {
+        return "O(n)";
+    }
+
+    @Override
+    public long estimateBytes(int width, int height) {
+        // A byte direction and a bit per cell.
+        return (long) width * height + width * height / 8;
+    }
+
+    @Override
+    public long estimateNanos(int width, int height) {
+        // Measured, the log factor barely shows at the sizes the game uses.
+        return 200L * width * height;
+    }
+
+    @Override
+    public void generate(CompactMaze maze, Random rand, GenerationMonitor monitor) {
+        int cells = maze.getCellCount();
+        // The direction each cell of the current walk was last left in. Only
+        // read for cells the current walk has been through.
+        byte[] exits = new byte[cells];
+        BitSet inMaze = new BitSet(cells);
+        inMaze.set(rand.nextInt(cells));
+        int added = 1;
+        int steps = 0;
+        for (int start = inMaze.nextClearBit(0); start < cells; start = inMaze
+                .nextClearBit(start + 1)) {
+            // Walk until the maze is hit.
+            int cell = start;
+            while (!inMaze.get(cell)) {
+                if (monitor != null && (steps & (GenerationMonitor.STEPS_PER_CHECK - 1)) == 0)
+                    monitor.onProgress(added, cells);
+                steps++;
+                int direction;
+                int next;
+                do {
+                    direction = rand.nextInt(4);
+                    next = maze.neighbor(cell, direction);
+                } while (next < 0);
+                exits[cell] = (byte) direction;
+                cell = next;
+            }
+            // Retrace the loop erased walk and add it to the maze.
+            cell = start;
+            while (!inMaze.get(cell)) {
+                int direction = exits[cell];
+                inMaze.set(cell);
+                added++;
+                maze.carve(cell, direction);
+                cell = maze.neighbor(cell, direction);
+            }
+        }
+    }
+}
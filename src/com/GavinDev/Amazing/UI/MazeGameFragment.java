@@ -19,8 +19,6 @@ import com.GavinDev.Amazing.drawing.MazeThread;
 import com.google.android.gms.games.Games;
 import com.google.example.games.basegameutils.GameHelper;
 
-import java.util.Locale;
-
 /**
  * Controls the life-cycle of the MazeThread and receives it's callbacks.
  * Whenever a new MazeSurfaceView is created this must pass it the MazeThread.
@@ -43,7 +41,19 @@ public class MazeGameFragment extends Fragment implements MazeThread.Callback {
     private static final int MINIMUM_TIME_TO_UNLOCK_NOVICE = 30000;
     private static final int MINIMUM_TIME_TO_UNLOCK_MASTER = 10000;
 
-    private String mTimerText = "";
+    /** Reused for every timer update so updating the timer doesn't allocate. */
+    private final StringBuilder mTimerText = new StringBuilder();
+    /** The latest time passed to updateTimer. */
+    private volatile int mTimeElapsed;
+    private final Runnable mUpdateTimerRunnable = new Runnable() {
+        @Override
+        public void run() {
+            TimerText.millisToString(mTimeElapsed, mTimerText);
+            if (mOptionsMenu != null) {
+                onPrepareOptionsMenu(mOptionsMenu);
+            }
+        }
+    };
     private Menu mOptionsMenu;
 
     public static final String MAZE_COMPLETED_TIME_ID = "mazeCompletedTime";
@@ -281,16 +291,9 @@ public class MazeGameFragment extends Fragment implements MazeThread.Callback {
      * Called from MazeThread, must be thread safe!
      */
     @Override
-    public void updateTimer(final int timeElapsed) {
-        getActivity().runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                mTimerText = millisToString(timeElapsed);
-                if (mOptionsMenu != null) {
-                    onPrepareOptionsMenu(mOptionsMenu);
-                }
-            }
-        });
+    public void updateTimer(int timeElapsed) {
+        mTimeElapsed = timeElapsed;
+        getActivity().runOnUiThread(mUpdateTimerRunnable);
 
     }
 
@@ -315,26 +318,4 @@ public class MazeGameFragment extends Fragment implements MazeThread.Callback {
 
     }
 
-    /**
-     * Convert an integer representing time in milliseconds to a pretty string
-     * format.
-     */
-    private String millisToString(int time) {
-        int millis = (time % 1000) / 100;
-        int second = (time / 1000) % 60;
-        int minute = (time / (1000 * 60)) % 60;
-        int hour = (time / (1000 * 60 * 60)) % 24;
-        String string;
-
-        if (hour > 0) {
-            string = String.format(Locale.US, "%d:%02d:%02d.%d", hour, minute, second, millis);
-        } else if (minute > 0) {
-            string = String.format(Locale.US, "%d:%02d.%d", minute, second, millis);
-        } else {
-            string = String.format(Locale.US, "%d.%d", second, millis);
-        }
-
-        return string;
-    }
-
 }
@@ -0,0 +1,61 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.UI;
+
+/**
+ * Formats the time shown by the maze timer. Called every tenth of a second
+ * while a maze is played, so it writes into a reused StringBuilder instead of
+ * allocating a new String.
+ */
+final class TimerText {
+
+    private TimerText() {
+    }
+
+    /**
+     * Convert an integer representing time in milliseconds to a pretty string
+     * format, e.g. 1:02:03.4, 2:03.4 or 3.4.
+     * 
+     * @param out Cleared and then given the formatted time.
+     */
+    static void millisToString(int time, StringBuilder out) {
+        int millis = (time % 1000) / 100;
+        int second = (time / 1000) % 60;
+        int minute = (time / (1000 * 60)) % 60;
+        int hour = (time / (1000 * 60 * 60)) % 24;
+        out.setLength(0);
+
+        if (hour > 0) {
+            out.append(hour).append(':');
+            appendTwoDigits(minute, out);
+            out.append(':');
+            appendTwoDigits(second, out);
+        } else if (minute > 0) {
+            out.append(minute).append(':');
+            appendTwoDigits(second, out);
+        } else {
+            out.append(second);
+        }
+        out.append('.').append(millis);
+    }
+
+    private static void appendTwoDigits(int value, StringBuilder out) {
+        if (value < 10) {
+            out.append('0');
+        }
+        out.append(value);
+    }
+}
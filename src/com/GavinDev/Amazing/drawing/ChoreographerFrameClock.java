@@ -0,0 +1,72 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.drawing;
+
+import android.view.Choreographer;
+
+/**
+ * A FrameClock driven by the display's vsync through a Choreographer. Must be
+ * created on a thread with a Looper, usually the UI thread, but
+ * {@link #awaitFrame()} can be called from any thread.
+ */
+public class ChoreographerFrameClock implements FrameClock, Choreographer.FrameCallback {
+
+    private final Choreographer mChoreographer;
+    private boolean mFrameArrived;
+    private boolean mReleased;
+    private long mFrameTimeNanos;
+
+    public ChoreographerFrameClock() {
+        mChoreographer = Choreographer.getInstance();
+    }
+
+    @Override
+    public synchronized long awaitFrame() throws InterruptedException {
+        mFrameArrived = false;
+        if (!mReleased) {
+            mChoreographer.postFrameCallback(this);
+        }
+        try {
+            while (!mFrameArrived && !mReleased) {
+                wait();
+            }
+        } finally {
+            if (mReleased) {
+                mChoreographer.removeFrameCallback(this);
+                mReleased = false;
+                mFrameTimeNanos = System.nanoTime();
+            }
+        }
+        return mFrameTimeNanos;
+    }
+
+    @Override
+    public synchronized void release() {
+        mReleased = true;
+        notifyAll();
+    }
+
+    /**
+     * Called by the Choreographer on the Looper thread at the start of a
+     * frame.
+     */
+    @Override
+    public synchronized void doFrame(long frameTimeNanos) {
+        mFrameTimeNanos = frameTimeNanos;
+        mFrameArrived = true;
+        notifyAll();
+    }
+}
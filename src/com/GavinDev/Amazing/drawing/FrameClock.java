@@ -0,0 +1,38 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.drawing;
+
+/**
+ * Paces a render loop. The render thread calls {@link #awaitFrame()} before
+ * drawing each frame and is blocked until the next frame is due. Replace it
+ * with a fake to drive a render loop frame by frame.
+ */
+public interface FrameClock {
+
+    /**
+     * Blocks until the next frame is due or {@link #release()} is called.
+     * 
+     * @return The time of the frame in nanoseconds, in the
+     *         {@link System#nanoTime()} time base.
+     */
+    long awaitFrame() throws InterruptedException;
+
+    /**
+     * Makes the current or next call to {@link #awaitFrame()} return
+     * immediately. Must be Thread Safe.
+     */
+    void release();
+}
@@ -29,25 +29,36 @@ import android.graphics.Rect;
 import android.os.Bundle;
 import android.preference.PreferenceManager;
 import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 
 import com.GavinDev.Amazing.R;
 import com.GavinDev.Amazing.Maze.Cell;
+import com.GavinDev.Amazing.Maze.CompactMaze;
 import com.GavinDev.Amazing.Maze.Maze;
+import com.GavinDev.Amazing.Maze.MazeGenerationTask;
+import com.GavinDev.Amazing.Maze.MazePool;
+import com.GavinDev.Amazing.Maze.StepMazeGenerator;
 import com.GavinDev.Amazing.Maze.Wall;
 
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * MazeThread draws the maze onto the MazeSurfaceView. Handles touch events
  * passed to it to update the state of the maze game.
  */
 public class MazeThread extends Thread {
+    private static final String TAG = "MazeThread";
 
     // touch event variables
-    private volatile float mXTouch;
-    private volatile float mYTouch;
-    private volatile boolean mIsAccelerating;
-    private static final float TOUCH_TOLERANCE = 4;
+    /** Touch input published by the UI thread without locking. */
+    private final TouchMailbox mTouchMailbox = new TouchMailbox();
 
     // The size of the maze
     private int mCellsPerRow;
@@ -64,30 +75,66 @@ public class MazeThread extends Thread {
     private static final double UFO_ASPECT_RATIO = 35.0 / 18.0;
 
     // ufo variables
-    private static final float PREVIOUS_VELOCITY_FAC = .25f;
-    private static final float TOUCH_FACTOR = .2f;
-    private static final float FRICTION = .25f;
+    // Velocities, friction and their factors are fixed-point numbers with
+    // FIXED_SHIFT fractional bits so the physics is deterministic. Velocities
+    // are in pixels per simulation step.
+    private static final int FIXED_SHIFT = 8;
+    private static final int FIXED_ONE = 1 << FIXED_SHIFT;
+    private static final int TOUCH_TOLERANCE = 4 << FIXED_SHIFT;
+    private static final int PREVIOUS_VELOCITY_FAC = FIXED_ONE / 4;
+    private static final int TOUCH_FACTOR = FIXED_ONE / 5;
+    private static final int FRICTION = FIXED_ONE / 4;
     private static final String UFO_X_VELOCITY_ID = "ufoxvelocity";
-    private float mUfoXVelocity = 0;
+    private int mUfoXVelocity = 0;
     private static final String UFO_Y_VELOCITY_ID = "ufoyvelocity";
-    private float mUfoYVelocity = 0;
+    private int mUfoYVelocity = 0;
     private static final String X_FRICTION_ID = "xfriction";
-    private float mXFriction = 0;
+    private int mXFriction = 0;
     private static final String Y_FRICTION_ID = "yfriction";
-    private float mYFriction = 0;
-    private static float mMaxSpeed;
-    private static final float REBOUND_FAC = .25f;
+    private int mYFriction = 0;
+    private static int mMaxSpeed;
+    private static final int REBOUND_FAC = FIXED_ONE / 4;
+    /** The most times the ufo can rebound along one axis in a frame. */
+    private static final int MAX_REBOUNDS = 2;
     private static final String UFO_ID = "ufo";
     private Point mUfo;
+    // The ufo position before the last simulation step, used to interpolate
+    // the drawn position between steps.
+    private int mPrevUfoX;
+    private int mPrevUfoY;
     private Path mPath;
     private Bitmap mUfoBm;
+    private SpriteMask mUfoMask;
 
     // maze variables
     private static final String MAZE_ID = "maze";
     private Maze mMaze;
     private int mMazeType;
+    private final Random mRand = new Random();
+    /** Generates mazes that aren't ready in the pool. */
+    private static final ExecutorService GENERATION_EXECUTOR = Executors
+            .newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "MazeGeneration");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+    /** The maze being generated while in STATE_LOADING. */
+    private MazeGenerationTask mLoadingTask;
+    /** How often the loading screen is redrawn. */
+    private static final int LOADING_FRAME_MILLIS = 50;
+    /** Carves the maze on screen while in STATE_GENERATING. */
+    private StepMazeGenerator mStepGenerator;
+    /** The number of walls removed per frame while in STATE_GENERATING. */
+    private static final int CARVES_PER_FRAME = 2;
+    private final int[] mCarvedEdges = new int[CARVES_PER_FRAME];
+    private final Rect mCarvedRect = new Rect();
     private Rect mEndRect;
     private Rect mStartRect;
+    private WallIndex mWallIndex;
 
     /** @see setSurfaceSize */
     private volatile int mCanvasHeight;
@@ -97,6 +144,8 @@ public class MazeThread extends Thread {
     private SurfaceHolder mSurfaceHolder;
     private SharedPreferences mPrefs;
     private Callback mCallback;
+    /** Paces the game loop, normally to the display's vsync. */
+    private volatile FrameClock mFrameClock;
 
     public static final int MESSAGE_MAZE_COMPLETED = 1;
     public static final int MESSAGE_UPDATE_TIMER = 2;
@@ -108,6 +157,10 @@ public class MazeThread extends Thread {
     private static final int STATE_PAUSED = 2;
     private static final int STATE_MAZE_FINISHED = 3;
     private static final int STATE_RESET_AFTER_MEASURE = 4;
+    /** Waiting for the next maze to be generated. */
+    private static final int STATE_LOADING = 5;
+    /** Showing the next maze being carved. */
+    private static final int STATE_GENERATING = 6;
     private volatile int mState = STATE_STOPPED;
 
     // Paints and bitmaps
@@ -115,11 +168,46 @@ public class MazeThread extends Thread {
     private Paint mPathPaint;
     private Paint mBackgroundPaint;
     private Bitmap mUfoBitmap;
+    /**
+     * The background, walls and end cell drawn once and reused every frame,
+     * since they don't change while the maze is being played.
+     */
+    private Bitmap mMazeLayer;
+    private Canvas mMazeLayerCanvas;
+    private boolean mMazeLayerDirty = true;
+
+    // Dirty region drawing. Normally only the area around the ufo and the new
+    // part of its path is redrawn.
+    /** Extra pixels around the dirty area to cover the width of the path. */
+    private static final int PATH_MARGIN = 3;
+    private boolean mFullRedraw = true;
+    private Rect mDirtyRect = new Rect();
+    /** Bounds of the ufo as it was last drawn. */
+    private Rect mDrawnUfoBounds = new Rect();
+    /** Bounds of the ufo as it will be drawn in this frame. */
+    private Rect mUfoBounds = new Rect();
+    /** Bounds of the path added since the last frame. */
+    private Rect mNewPathBounds = new Rect();
 
     // Timing variables
+    // The physics is stepped at a fixed rate, independent of the frame rate,
+    // and the elapsed time is the number of steps taken.
+    private static final int STEPS_PER_SECOND = 60;
+    private static final long STEP_NANOS = 1000000000L / STEPS_PER_SECOND;
+    /** Limits catching up after a long stall to a few steps per frame. */
+    private static final int MAX_STEPS_PER_FRAME = 8;
     private static final String TIME_ELAPSED_ID = "timeElapsed";
     private int mTimeElapsed = 0;
-    private long mTimeStart;
+    /** The tenths of a second last sent to updateTimer, -1 if none. */
+    private int mReportedTenths = -1;
+    private long mStepsTaken = 0;
+    private long mAccumulatedNanos = 0;
+    /** Time of the last frame, 0 if the simulation has been interrupted. */
+    private long mLastFrameNanos = 0;
+    /** How often in milliseconds the timer needs updating while idle. */
+    private static final int IDLE_TIMER_PRECISION = 100;
+    /** True while the thread is waiting with the ufo at rest. */
+    private volatile boolean mIdle = false;
 
     /**
      * Callback that the hosting object must implement to receive updates from
@@ -140,6 +228,7 @@ public class MazeThread extends Thread {
         mSurfaceHolder = surfaceHolder;
         mMazeType = mazeType;
         mPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        mFrameClock = new ChoreographerFrameClock();
 
         mMazePaint = new Paint();
         mMazePaint.setStyle(Paint.Style.FILL);
@@ -162,37 +251,39 @@ public class MazeThread extends Thread {
         // Set maxSpeed depending on screen DPI
         float baseMaxSpeed = 18f; // The maxSpeed for screens at
                                   // DisplayMetrics.DENSITY_XHIGH
+        float maxSpeed;
         DisplayMetrics metrics = context.getResources().getDisplayMetrics();
         switch (metrics.densityDpi) {
             case DisplayMetrics.DENSITY_LOW:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_LOW;
                 break;
             case DisplayMetrics.DENSITY_MEDIUM:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_MEDIUM;
                 break;
             case DisplayMetrics.DENSITY_TV:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_TV;
                 break;
             case DisplayMetrics.DENSITY_HIGH:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_HIGH;
                 break;
             case DisplayMetrics.DENSITY_XHIGH:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_XHIGH;
                 break;
             case DisplayMetrics.DENSITY_XXHIGH:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_XXHIGH;
                 break;
             default:
-                mMaxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
+                maxSpeed = (baseMaxSpeed / DisplayMetrics.DENSITY_XHIGH)
                         * DisplayMetrics.DENSITY_XHIGH;
                 break;
         }
+        mMaxSpeed = (int) (maxSpeed * FIXED_ONE);
 
         // set the cells per column/row depending on orientation.
         if (context.getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT) {
@@ -211,12 +302,17 @@ public class MazeThread extends Thread {
             if (mState == STATE_RUNNING)
                 mState = STATE_PAUSED;
         }
+        mFrameClock.release();
     }
 
     public void unpause() {
         synchronized (mSurfaceHolder) {
             if (mState == STATE_PAUSED)
                 mState = STATE_RUNNING;
+            // Don't simulate the time spent paused, and redraw everything in
+            // case the surface was recreated.
+            mLastFrameNanos = 0;
+            mFullRedraw = true;
             mSurfaceHolder.notify();
             if (mState == STATE_MAZE_FINISHED) {
                 // Dismiss the dialog and set the state to running so the maze
@@ -233,8 +329,24 @@ public class MazeThread extends Thread {
     public void halt() {
         synchronized (mSurfaceHolder) {
             mState = STATE_STOPPED;
+            mStepGenerator = null;
+            if (mLoadingTask != null) {
+                mLoadingTask.cancel(false);
+                mLoadingTask = null;
+            }
             mSurfaceHolder.notify();
         }
+        mFrameClock.release();
+    }
+
+    /**
+     * Replaces the clock that paces the game loop. The default clock follows
+     * the display's vsync.
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        FrameClock old = mFrameClock;
+        mFrameClock = frameClock;
+        old.release();
     }
 
     /**
@@ -245,13 +357,15 @@ public class MazeThread extends Thread {
      */
     public Bundle saveState(Bundle outState) {
         synchronized (mSurfaceHolder) {
+            // Only a finished maze can be saved.
+            finishGeneration();
             if (outState != null) {
                 outState.putParcelable(MAZE_ID, mMaze);
                 outState.putParcelable(UFO_ID, mUfo);
-                outState.putFloat(UFO_X_VELOCITY_ID, mUfoXVelocity);
-                outState.putFloat(UFO_Y_VELOCITY_ID, mUfoYVelocity);
-                outState.putFloat(X_FRICTION_ID, mXFriction);
-                outState.putFloat(Y_FRICTION_ID, mYFriction);
+                outState.putInt(UFO_X_VELOCITY_ID, mUfoXVelocity);
+                outState.putInt(UFO_Y_VELOCITY_ID, mUfoYVelocity);
+                outState.putInt(X_FRICTION_ID, mXFriction);
+                outState.putInt(Y_FRICTION_ID, mYFriction);
                 outState.putInt(TIME_ELAPSED_ID, mTimeElapsed);
             }
         }
@@ -266,25 +380,44 @@ public class MazeThread extends Thread {
      */
     public void restoreState(Bundle savedInstanceState) {
         synchronized (mSurfaceHolder) {
+            // The restored maze replaces whatever was being generated.
+            if (mLoadingTask != null) {
+                mLoadingTask.cancel(false);
+                mLoadingTask = null;
+            }
             mMaze = savedInstanceState.getParcelable(MAZE_ID);
+            if (mMaze == null) {
+                // Saved before the first maze was ready.
+                newMaze();
+                return;
+            }
             mState = STATE_RUNNING;
             mUfo = savedInstanceState.getParcelable(UFO_ID);
-            mUfoXVelocity = savedInstanceState.getFloat(UFO_X_VELOCITY_ID);
-            mUfoYVelocity = savedInstanceState.getFloat(UFO_Y_VELOCITY_ID);
-            mXFriction = savedInstanceState.getFloat(X_FRICTION_ID);
-            mYFriction = savedInstanceState.getFloat(Y_FRICTION_ID);
+            mUfoXVelocity = savedInstanceState.getInt(UFO_X_VELOCITY_ID);
+            mUfoYVelocity = savedInstanceState.getInt(UFO_Y_VELOCITY_ID);
+            mXFriction = savedInstanceState.getInt(X_FRICTION_ID);
+            mYFriction = savedInstanceState.getInt(Y_FRICTION_ID);
             mTimeElapsed = savedInstanceState.getInt(TIME_ELAPSED_ID);
+            mStepsTaken = (long) mTimeElapsed * STEPS_PER_SECOND / 1000;
+            mReportedTenths = -1;
+            mPrevUfoX = mUfo.x;
+            mPrevUfoY = mUfo.y;
+            mAccumulatedNanos = 0;
+            mLastFrameNanos = 0;
+            // Rebuild the wall bounds and index for the restored maze.
+            calculateGFXSizes();
         }
     }
 
     /**
      * The main game loop: while in STATE_RUNNING updates the game and then
-     * draws it.
+     * draws it, once per frame of the FrameClock.
      */
     @Override
     public void run() {
         while (mState != STATE_STOPPED) {
-            while (mState != STATE_RUNNING && mState != STATE_STOPPED) {
+            while (mState != STATE_RUNNING && mState != STATE_LOADING
+                    && mState != STATE_GENERATING && mState != STATE_STOPPED) {
                 try {
                     synchronized (mSurfaceHolder) {
                         mSurfaceHolder.wait();
@@ -297,29 +430,61 @@ public class MazeThread extends Thread {
             if (mState == STATE_STOPPED)
                 return;
 
-            mTimeStart = System.currentTimeMillis();
+            if (mState == STATE_LOADING) {
+                showLoading();
+                continue;
+            }
+
+            if (mState == STATE_GENERATING) {
+                try {
+                    mFrameClock.awaitFrame();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                showGenerationStep();
+                continue;
+            }
+
+            // Nothing on screen changes while the ufo is at rest, so don't
+            // draw frames until there is input or the timer changes.
+            if (isAtRest()) {
+                idle();
+                reportTime();
+                continue;
+            }
+
+            // Wait for the next vsync.
+            long frameTime;
+            try {
+                frameTime = mFrameClock.awaitFrame();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (mState != STATE_RUNNING)
+                continue;
 
             synchronized (mSurfaceHolder) {
                 Canvas c = null;
                 try {
-                    c = mSurfaceHolder.lockCanvas();
+                    if (mState == STATE_RUNNING) {
+                        // Step the physics for the time since the last frame.
+                        advanceSimulation(frameTime);
+                    }
+
+                    // Only lock the part of the surface that changed.
+                    boolean fullRedraw = calculateDirtyRect();
+                    c = fullRedraw ? mSurfaceHolder.lockCanvas() : mSurfaceHolder
+                            .lockCanvas(mDirtyRect);
                     if (c == null) {
                         // Pause here so that our calls do not get throttled for
                         // calling lockCanvas() too often.
                         pause();
                     } else {
-
-                        if (mState == STATE_RUNNING) {
-                            // Update velocity based on touch
-                            // information.
-                            updateVelocity();
-
-                            // Update position with boundary checking
-                            updatePosition();
-                        }
-
                         // draw to the canvas
-                        mDraw(c);
+                        mDraw(c, fullRedraw);
+                        mFullRedraw = false;
+                        mDrawnUfoBounds.set(mUfoBounds);
+                        mNewPathBounds.setEmpty();
                     }
                 } finally {
                     // do this in a finally so that if an exception is thrown
@@ -331,11 +496,229 @@ public class MazeThread extends Thread {
                 }
             }
 
-            if (mState != STATE_MAZE_FINISHED) {
-                mTimeElapsed = mTimeElapsed + (int) (System.currentTimeMillis() - mTimeStart);
-                mCallback.updateTimer(mTimeElapsed);
+            reportTime();
+
+        }
+    }
+
+    /**
+     * Starts the maze being generated if it's ready, otherwise draws how far
+     * along it is and waits a little.
+     */
+    private void showLoading() {
+        synchronized (mSurfaceHolder) {
+            MazeGenerationTask task = mLoadingTask;
+            if (mState != STATE_LOADING || task == null)
+                return;
+            if (task.isDone()) {
+                mLoadingTask = null;
+                try {
+                    startMaze(task.get());
+                } catch (CancellationException ignore) {
+                } catch (InterruptedException ignore) {
+                } catch (ExecutionException e) {
+                    // Don't take the game thread down with the generator, e.g.
+                    // if it ran short of memory. Game sized mazes are cheap
+                    // enough to retry right here.
+                    Log.e(TAG, "Maze generation failed, retrying", e.getCause());
+                    startMaze(new Maze(mCellsPerRow, mCellsPerColumn, mMazeType,
+                            mRand.nextLong()));
+                }
+                return;
+            }
+
+            Canvas c = null;
+            try {
+                c = mSurfaceHolder.lockCanvas();
+                if (c != null) {
+                    // A line across the middle of the screen that grows as the
+                    // maze is generated.
+                    c.drawRect(0, 0, mCanvasWidth, mCanvasHeight, mBackgroundPaint);
+                    float left = mCanvasWidth / 6f;
+                    float right = left + (mCanvasWidth - 2 * left) * task.getProgress();
+                    c.drawLine(left, mCanvasHeight / 2f, right, mCanvasHeight / 2f, mPathPaint);
+                }
+            } finally {
+                if (c != null) {
+                    mSurfaceHolder.unlockCanvasAndPost(c);
+                }
+            }
+            try {
+                // Woken early when the task is done.
+                mSurfaceHolder.wait(LOADING_FRAME_MILLIS);
+            } catch (InterruptedException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Removes the next few walls of the maze being generated from the maze
+     * layer and draws the part of the screen that changed. Starts the maze
+     * once it's finished.
+     */
+    private void showGenerationStep() {
+        synchronized (mSurfaceHolder) {
+            if (mState != STATE_GENERATING || mCanvasWidth == 0 || mCanvasHeight == 0)
+                return;
+            if (mMazeLayerDirty) {
+                // The grid of every wall.
+                drawMazeLayer();
+                mFullRedraw = true;
+            }
+            CompactMaze maze = mStepGenerator.getMaze();
+            int carved = mStepGenerator.step(CARVES_PER_FRAME, mCarvedEdges);
+            mDirtyRect.setEmpty();
+            for (int i = 0; i < carved; i++) {
+                setPassageRect(CompactMaze.edgeCell(mCarvedEdges[i]),
+                        CompactMaze.edgeDirection(mCarvedEdges[i]), maze.getWidth(), mCarvedRect);
+                mMazeLayerCanvas.drawRect(mCarvedRect, mBackgroundPaint);
+                mDirtyRect.union(mCarvedRect);
+            }
+            if (mStepGenerator.isFinished()) {
+                finishGeneration();
+                return;
+            }
+            if (mDirtyRect.isEmpty() && !mFullRedraw)
+                return;
+
+            Canvas c = null;
+            try {
+                c = mFullRedraw ? mSurfaceHolder.lockCanvas() : mSurfaceHolder
+                        .lockCanvas(mDirtyRect);
+                if (c == null) {
+                    // No one can see the maze being carved, so just start it.
+                    finishGeneration();
+                } else {
+                    c.drawBitmap(mMazeLayer, 0, 0, null);
+                    mFullRedraw = false;
+                }
+            } finally {
+                if (c != null) {
+                    mSurfaceHolder.unlockCanvasAndPost(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the rest of the maze being carved, if there is one, and starts
+     * it.
+     */
+    private void finishGeneration() {
+        synchronized (mSurfaceHolder) {
+            StepMazeGenerator generator = mStepGenerator;
+            if (generator == null)
+                return;
+            while (!generator.isFinished()) {
+                generator.step(CARVES_PER_FRAME, mCarvedEdges);
             }
+            // startMaze redraws the maze layer from the finished maze's walls.
+            startMaze(new Maze(generator.getMaze()));
+        }
+    }
+
+    /**
+     * Sets rect to the gap a removed wall leaves between two cells, i.e. the
+     * wall without the corners it shares with other walls.
+     * 
+     * @param cell The cell to the left of or above the wall.
+     * @param direction CompactMaze.EAST or CompactMaze.SOUTH.
+     * @param cellsPerRow The width of the maze in cells.
+     */
+    private void setPassageRect(int cell, int direction, int cellsPerRow, Rect rect) {
+        int left = (cell % cellsPerRow) * (mCellWidth + mWallWidth) + mBoundaryWidth;
+        int top = (cell / cellsPerRow) * (mCellHeight + mWallWidth) + mBoundaryHeight;
+        if (direction == CompactMaze.EAST) {
+            left += mCellWidth + mWallWidth;
+            rect.set(left, top + mWallWidth, left + mWallWidth, top + mWallWidth + mCellHeight);
+        } else {
+            top += mCellHeight + mWallWidth;
+            rect.set(left + mWallWidth, top, left + mWallWidth + mCellWidth, top + mWallWidth);
+        }
+    }
+
+    /**
+     * Sends the elapsed time to the callback. The timer only displays tenths
+     * of a second so it's only updated when they change.
+     */
+    private void reportTime() {
+        if (mState != STATE_MAZE_FINISHED && mTimeElapsed / 100 != mReportedTenths) {
+            mReportedTenths = mTimeElapsed / 100;
+            mCallback.updateTimer(mTimeElapsed);
+        }
+    }
+
+    /**
+     * @return True iff the ufo isn't moving, isn't being moved and the last
+     *         frame drawn is still up to date.
+     */
+    private boolean isAtRest() {
+        return mState == STATE_RUNNING && !mTouchMailbox.isTouching() && roundFixed(mUfoXVelocity) == 0
+                && roundFixed(mUfoYVelocity) == 0 && mUfo.x == mPrevUfoX && mUfo.y == mPrevUfoY
+                && mDrawnUfoBounds.left == mUfo.x - mUfoWidth / 2
+                && mDrawnUfoBounds.top == mUfo.y - mUfoHeight / 2 && !mFullRedraw
+                && !mMazeLayerDirty;
+    }
+
+    /**
+     * Waits without drawing until the displayed time would change or
+     * something wakes the thread, e.g. a touch event. Then advances the game
+     * by the time waited.
+     */
+    private void idle() {
+        synchronized (mSurfaceHolder) {
+            // Set mIdle before checking for touches, so a touch is either seen
+            // here or its handler sees mIdle and wakes us.
+            mIdle = true;
+            if (!isAtRest()) {
+                mIdle = false;
+                return;
+            }
+            try {
+                mSurfaceHolder.wait(IDLE_TIMER_PRECISION - mTimeElapsed % IDLE_TIMER_PRECISION);
+            } catch (InterruptedException ignore) {
+            }
+            mIdle = false;
+            if (mState == STATE_RUNNING) {
+                advanceSimulation(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Takes as many fixed size physics steps as fit in the time since the last
+     * frame. Left over time is carried to the next frame.
+     * 
+     * @param frameTime The time of this frame in nanoseconds.
+     */
+    private void advanceSimulation(long frameTime) {
+        if (mLastFrameNanos != 0) {
+            mAccumulatedNanos += frameTime - mLastFrameNanos;
+        }
+        mLastFrameNanos = frameTime;
+
+        int steps = 0;
+        while (mAccumulatedNanos >= STEP_NANOS && mState == STATE_RUNNING) {
+            if (steps == MAX_STEPS_PER_FRAME) {
+                // Too far behind, drop the time instead of catching up.
+                mAccumulatedNanos %= STEP_NANOS;
+                break;
+            }
+            mPrevUfoX = mUfo.x;
+            mPrevUfoY = mUfo.y;
+            mStepsTaken++;
+            mTimeElapsed = (int) (mStepsTaken * 1000 / STEPS_PER_SECOND);
+
+            // Update velocity based on touch information.
+            updateVelocity();
+
+            // Update position with boundary checking
+            updatePosition();
+            mNewPathBounds.union(Math.min(mPrevUfoX, mUfo.x), Math.min(mPrevUfoY, mUfo.y),
+                    Math.max(mPrevUfoX, mUfo.x) + 1, Math.max(mPrevUfoY, mUfo.y) + 1);
 
+            mAccumulatedNanos -= STEP_NANOS;
+            steps++;
         }
     }
 
@@ -343,24 +726,15 @@ public class MazeThread extends Thread {
      * Called by the UI thread when there is a touch event. Must be Thread Safe.
      */
     public boolean handleTouchEvent(MotionEvent ev) {
-        synchronized (mSurfaceHolder) {
-            switch (ev.getAction()) {
-                case MotionEvent.ACTION_DOWN:
-                    mXTouch = ev.getX();
-                    mYTouch = ev.getY();
-                    mIsAccelerating = true;
-                    break;
-                case MotionEvent.ACTION_UP:
-                    mIsAccelerating = false;
-                    break;
-                case MotionEvent.ACTION_MOVE:
-                    mXTouch = ev.getX();
-                    mYTouch = ev.getY();
-                    mIsAccelerating = true;
-                    break;
+        mTouchMailbox.publish(ev);
+        if (mIdle) {
+            // Wake the thread so it starts drawing again. The thread isn't
+            // holding the lock while it's idle.
+            synchronized (mSurfaceHolder) {
+                mSurfaceHolder.notify();
             }
-            return true;
         }
+        return true;
     }
 
     /**
@@ -368,17 +742,99 @@ public class MazeThread extends Thread {
      * Must be Thread Safe.
      */
     public void newMaze() {
+        if (mPrefs.getBoolean("pref_animate_generation", false)) {
+            animateMaze(mRand.nextLong());
+            return;
+        }
+        // Take a maze the pool made in the background, the pool then starts on
+        // the one after. Only generate one here if none are ready.
+        Maze maze = MazePool.getInstance().take(mCellsPerRow, mCellsPerColumn, mMazeType);
+        if (maze == null)
+            loadMaze(mRand.nextLong());
+        else
+            startMaze(maze);
+    }
+
+    /**
+     * Shows the maze for the given seed being carved out of a grid, a few
+     * walls a frame, then starts it. Must be Thread Safe.
+     */
+    private void animateMaze(long seed) {
+        StepMazeGenerator generator = StepMazeGenerator.create(mMazeType, mCellsPerRow,
+                mCellsPerColumn, seed);
+        // The grid the maze is carved from, so the maze layer and wall bounds
+        // can be set up as usual.
+        Maze grid = new Maze(generator.getMaze());
         synchronized (mSurfaceHolder) {
-            mMaze = new Maze(mCellsPerRow, mCellsPerColumn, mMazeType);
+            if (mLoadingTask != null) {
+                mLoadingTask.cancel(false);
+                mLoadingTask = null;
+            }
+            mStepGenerator = generator;
+            mMaze = grid;
+            mPath.reset();
+            mTimeElapsed = 0;
+            mReportedTenths = -1;
+            calculateGFXSizes();
+            mState = STATE_GENERATING;
+            mSurfaceHolder.notify();
+        }
+    }
+
+    /**
+     * Generates the maze for the given seed in the background and shows the
+     * loading screen until it's ready. A maze still being generated for an
+     * earlier request is cancelled. Must be Thread Safe.
+     */
+    private void loadMaze(long seed) {
+        MazeGenerationTask task = new MazeGenerationTask(mCellsPerRow, mCellsPerColumn,
+                mMazeType, seed) {
+            @Override
+            protected void done() {
+                // Wake the thread so it starts the maze right away.
+                synchronized (mSurfaceHolder) {
+                    mSurfaceHolder.notify();
+                }
+            }
+        };
+        synchronized (mSurfaceHolder) {
+            if (mLoadingTask != null)
+                mLoadingTask.cancel(false);
+            mLoadingTask = task;
+            mStepGenerator = null;
+            mState = STATE_LOADING;
+            mSurfaceHolder.notify();
+        }
+        GENERATION_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Resets the game to the start of the given maze. Must be Thread Safe.
+     */
+    private void startMaze(Maze maze) {
+        synchronized (mSurfaceHolder) {
+            mStepGenerator = null;
+            if (mLoadingTask != null) {
+                // The maze being generated is no longer wanted.
+                mLoadingTask.cancel(false);
+                mLoadingTask = null;
+            }
+            mMaze = maze;
             if (mCanvasHeight != 0 && mCanvasWidth != 0) {
                 mUfoXVelocity = 0;
                 mUfoYVelocity = 0;
                 mXFriction = 0;
                 mYFriction = 0;
                 mTimeElapsed = 0;
+                mReportedTenths = -1;
+                mStepsTaken = 0;
+                mAccumulatedNanos = 0;
+                mLastFrameNanos = 0;
                 calculateGFXSizes();
                 mUfo.x = mStartRect.centerX();
                 mUfo.y = mStartRect.centerY();
+                mPrevUfoX = mUfo.x;
+                mPrevUfoY = mUfo.y;
                 mPath.reset();
                 mPath.moveTo(mUfo.x, mUfo.y);
                 mState = STATE_RUNNING;
@@ -395,7 +851,8 @@ public class MazeThread extends Thread {
      */
     public void calculateGFXSizes() {
         synchronized (mSurfaceHolder) {
-            if (mCanvasWidth == 0 | mCanvasHeight == 0)
+            // The maze may still be loading, it's measured once it starts.
+            if (mCanvasWidth == 0 | mCanvasHeight == 0 || mMaze == null)
                 return;
 
             // Calculate pixel sizes of maze and ufo
@@ -428,6 +885,7 @@ public class MazeThread extends Thread {
 
             // resize the ufo bitmap
             mUfoBm = Bitmap.createScaledBitmap(mUfoBitmap, mUfoWidth, mUfoHeight, false);
+            mUfoMask = new SpriteMask(mUfoBm, mUfoWidth / 2 * 2, mUfoHeight / 2 * 2);
 
             // get bounds for start and end rectangles
             mEndRect = calculateCellRect(mMaze.getCell(Cell.END_CELL));
@@ -471,6 +929,17 @@ public class MazeThread extends Thread {
                     }
                 }
             }
+
+            // Bucket the walls by cell so collision checks only look at the
+            // walls near the ufo.
+            mWallIndex = new WallIndex(mMaze.getWalls(), mBoundaryWidth, mBoundaryHeight,
+                    mCellWidth + mWallWidth, mCellHeight + mWallWidth, mMaze.getWidth(),
+                    mMaze.getHeight());
+
+            // The walls have moved so the maze layer and the whole surface
+            // need to be redrawn.
+            mMazeLayerDirty = true;
+            mFullRedraw = true;
         }
         return;
     }
@@ -485,37 +954,29 @@ public class MazeThread extends Thread {
                 mCanvasWidth = width;
                 mCanvasHeight = height;
                 calculateGFXSizes();
-                if (mCanvasWidth > 0 && mCanvasHeight > 0 && mState == STATE_RESET_AFTER_MEASURE) {
-                    newMaze();
+                if (mCanvasWidth > 0 && mCanvasHeight > 0 && mState == STATE_RESET_AFTER_MEASURE
+                        && mMaze != null) {
+                    // Start the maze that was waiting for the surface size.
+                    startMaze(mMaze);
                 }
+                // Wake the thread if it's idle so it redraws at the new size.
+                mSurfaceHolder.notify();
             }
         }
     }
 
     /**
-     * Update the position of the UFO
+     * Update the position of the UFO. The movement along each axis is swept
+     * against the walls, so the cost does not depend on the speed of the UFO.
      */
     private void updatePosition() {
-
-        Point vel = new Point(Math.round(mUfoXVelocity), Math.round(mUfoYVelocity));
-        boolean positionUpdated = false;
-        while (Math.abs(vel.x) > 0 || Math.abs(vel.y) > 0) {
-            positionUpdated = true;
-            if (Math.abs(vel.x) > Math.abs(vel.y) && vel.y != 0) {
-                takeNStepsInXDirection(vel, Math.abs(vel.x / vel.y));
-                takeNStepsInYDirection(vel, 1);
-            } else if (Math.abs(vel.y) > Math.abs(vel.x) && vel.x != 0) {
-                takeNStepsInYDirection(vel, Math.abs(vel.y / vel.x));
-                takeNStepsInXDirection(vel, 1);
-            } else {
-                if (Math.abs(vel.x) > 0) {
-                    takeNStepsInXDirection(vel, 1);
-                }
-                if (Math.abs(vel.y) > 0) {
-                    takeNStepsInYDirection(vel, 1);
-                }
-            }
-        }
+        int xVel = roundFixed(mUfoXVelocity);
+        int yVel = roundFixed(mUfoYVelocity);
+        boolean positionUpdated = xVel != 0 || yVel != 0;
+        if (xVel != 0)
+            moveInXDirection(xVel);
+        if (yVel != 0)
+            moveInYDirection(yVel);
 
         // Add current position to mPath if the position changed.
         if (positionUpdated)
@@ -532,140 +993,119 @@ public class MazeThread extends Thread {
      * Update the velocity of the ufo.
      */
     private void updateVelocity() {
-        if (mIsAccelerating
-                && (Math.abs(mXTouch - mUfo.x) > TOUCH_TOLERANCE || Math.abs(mYTouch - mUfo.y) > TOUCH_TOLERANCE)) {
-            mUfoXVelocity = TOUCH_FACTOR
-                    * (mXTouch - mUfo.x + Math.round(PREVIOUS_VELOCITY_FAC * mUfoXVelocity));
-            mUfoYVelocity = TOUCH_FACTOR
-                    * (mYTouch - mUfo.y + Math.round(PREVIOUS_VELOCITY_FAC * mUfoYVelocity));
+        // Steer towards the average of the touch samples since the last step.
+        boolean isAccelerating = mTouchMailbox.read();
+        int xTouch = (int) (mTouchMailbox.getX() * FIXED_ONE) - (mUfo.x << FIXED_SHIFT);
+        int yTouch = (int) (mTouchMailbox.getY() * FIXED_ONE) - (mUfo.y << FIXED_SHIFT);
+        if (isAccelerating
+                && (Math.abs(xTouch) > TOUCH_TOLERANCE || Math.abs(yTouch) > TOUCH_TOLERANCE)) {
+            int xPrevious = roundFixed(multiplyFixed(PREVIOUS_VELOCITY_FAC, mUfoXVelocity));
+            mUfoXVelocity = multiplyFixed(TOUCH_FACTOR, xTouch + (xPrevious << FIXED_SHIFT));
+            int yPrevious = roundFixed(multiplyFixed(PREVIOUS_VELOCITY_FAC, mUfoYVelocity));
+            mUfoYVelocity = multiplyFixed(TOUCH_FACTOR, yTouch + (yPrevious << FIXED_SHIFT));
             // Enforce max speed;
-            float accSpeed = (float) Math.sqrt(Math.pow(mUfoXVelocity, 2)
-                    + Math.pow(mUfoYVelocity, 2));
+            int accSpeed = speedFixed(mUfoXVelocity, mUfoYVelocity);
             if (accSpeed > mMaxSpeed) {
-                mUfoXVelocity = mUfoXVelocity * mMaxSpeed / accSpeed;
-                mUfoYVelocity = mUfoYVelocity * mMaxSpeed / accSpeed;
+                mUfoXVelocity = (int) ((long) mUfoXVelocity * mMaxSpeed / accSpeed);
+                mUfoYVelocity = (int) ((long) mUfoYVelocity * mMaxSpeed / accSpeed);
             }
         } else {
             // Decrease speed with friction.
-            float speed = (float) Math
-                    .sqrt(Math.pow(mUfoXVelocity, 2) + Math.pow(mUfoYVelocity, 2));
-            if ((Math.abs(mUfoXVelocity) + Math.abs(mUfoYVelocity)) > 0) {
-                mXFriction = speed * FRICTION * -1 * mUfoXVelocity
-                        / (Math.abs(mUfoXVelocity) + Math.abs(mUfoYVelocity));
-                mYFriction = speed * FRICTION * -1 * mUfoYVelocity
-                        / (Math.abs(mUfoXVelocity) + Math.abs(mUfoYVelocity));
+            int speed = speedFixed(mUfoXVelocity, mUfoYVelocity);
+            int manhattan = Math.abs(mUfoXVelocity) + Math.abs(mUfoYVelocity);
+            if (manhattan > 0) {
+                int friction = multiplyFixed(speed, FRICTION);
+                mXFriction = (int) ((long) friction * -1 * mUfoXVelocity / manhattan);
+                mYFriction = (int) ((long) friction * -1 * mUfoYVelocity / manhattan);
             }
             mUfoXVelocity = mUfoXVelocity + mXFriction;
             mUfoYVelocity = mUfoYVelocity + mYFriction;
         }
     }
 
+    /** @return a * b where a, b and the result are fixed-point numbers. */
+    private static int multiplyFixed(int a, int b) {
+        return (int) (((long) a * b) >> FIXED_SHIFT);
+    }
+
+    /** @return The fixed-point number rounded to the nearest integer. */
+    private static int roundFixed(int a) {
+        return (a + FIXED_ONE / 2) >> FIXED_SHIFT;
+    }
+
+    /** @return The length of the fixed-point vector (x, y). */
+    private static int speedFixed(int x, int y) {
+        return (int) Math.sqrt((double) ((long) x * x + (long) y * y));
+    }
+
     /**
-     * Given the bounds for a UFO position checks if it intersects with a wall.
+     * Move the UFO along the X axis, rebounding from walls as needed.
      * 
-     * @param left The left bound of the UFO.
-     * @param top The top bound of the UFO.
-     * @param right The right bound of the UFO.
-     * @param bottom The bottom bound of the UFO.
-     * @return True iff the given UFO position intersects with a wall.
+     * @param distance The signed number of pixels to move.
      */
-    private boolean wallsIntersects(int left, int top, int right, int bottom) {
-        for (Wall w : mMaze.getWalls()) {
-            if (w.getBounds().intersects(left, top, right, bottom)) {
-                // get the bounds of the intersection
-                Rect intersection = new Rect();
-                intersection.setIntersect(w.getBounds(), new Rect(left, top, right, bottom));
-                for (int x = intersection.left; x < intersection.right; x++) {
-                    for (int y = intersection.top; y < intersection.bottom; y++) {
-                        if (mUfoBm.getPixel(x - left, y - top) != Color.TRANSPARENT) {
-                            return true;
-                        }
-                    }
-                }
-
-            }
+    private void moveInXDirection(int distance) {
+        for (int rebounds = 0; distance != 0 && rebounds <= MAX_REBOUNDS; rebounds++) {
+            int moved = sweep(distance > 0 ? SpriteMask.RIGHT : SpriteMask.LEFT,
+                    Math.abs(distance));
+            moved = distance > 0 ? moved : -moved;
+            mUfo.x += moved;
+            if (moved == distance)
+                break;
+            // Rebound with the remaining distance.
+            distance = (distance - moved) * -1 * REBOUND_FAC / FIXED_ONE;
+            mUfoXVelocity = -1 * multiplyFixed(mUfoXVelocity, REBOUND_FAC);
+            mXFriction = -1 * multiplyFixed(mXFriction, REBOUND_FAC);
         }
-        return false;
     }
 
     /**
-     * Move the UFO N steps in the Y direction, rebounding from walls as needed.
+     * Move the UFO along the Y axis, rebounding from walls as needed.
      * 
-     * @param n The number of steps to move
-     */
-    private void takeNStepsInYDirection(Point vel, int n) {
-        while (n > 0) {
-            // Take a steps along the yVel vector, making decisions as we
-            // go.
-            if (vel.y > 0) {
-                if (mUfo.y + 1 > mCanvasHeight - mUfoHeight / 2
-                        || wallsIntersects(mUfo.x - mUfoWidth / 2, mUfo.y + 1 - mUfoHeight / 2,
-                                mUfo.x + mUfoWidth / 2, mUfo.y + 1 + mUfoHeight / 2)) {
-                    // Rebound
-                    mUfo.y -= 1;
-                    vel.y *= -1 * REBOUND_FAC;
-                    mUfoYVelocity *= -1 * REBOUND_FAC;
-                    mYFriction *= -1 * REBOUND_FAC;
-                } else {
-                    mUfo.y += 1;
-                }
-                vel.y--;
-            } else {
-                if (mUfo.y - 1 < mUfoHeight / 2
-                        || wallsIntersects(mUfo.x - mUfoWidth / 2, mUfo.y - 1 - mUfoHeight / 2,
-                                mUfo.x + mUfoWidth / 2, mUfo.y - 1 + mUfoHeight / 2)) {
-                    // Rebound
-                    mUfo.y += 1;
-                    vel.y *= -1 * REBOUND_FAC;
-                    mUfoYVelocity *= -1 * REBOUND_FAC;
-                    mYFriction *= -1 * REBOUND_FAC;
-                } else {
-                    mUfo.y -= 1;
-                }
-                vel.y++;
-            }
-            n--;
+     * @param distance The signed number of pixels to move.
+     */
+    private void moveInYDirection(int distance) {
+        for (int rebounds = 0; distance != 0 && rebounds <= MAX_REBOUNDS; rebounds++) {
+            int moved = sweep(distance > 0 ? SpriteMask.DOWN : SpriteMask.UP,
+                    Math.abs(distance));
+            moved = distance > 0 ? moved : -moved;
+            mUfo.y += moved;
+            if (moved == distance)
+                break;
+            // Rebound with the remaining distance.
+            distance = (distance - moved) * -1 * REBOUND_FAC / FIXED_ONE;
+            mUfoYVelocity = -1 * multiplyFixed(mUfoYVelocity, REBOUND_FAC);
+            mYFriction = -1 * multiplyFixed(mYFriction, REBOUND_FAC);
         }
     }
 
     /**
-     * Move the UFO N steps in the X direction, rebounding from walls as needed.
+     * Finds how far the UFO can move in a direction before it hits a wall or
+     * the edge of the canvas.
      * 
-     * @param n The number of steps to move
-     */
-    private void takeNStepsInXDirection(Point vel, int n) {
-        while (n > 0) {
-            // Take a steps along the xVel vector, making decisions as we
-            // go.
-            if (vel.x > 0) {
-                if (mUfo.x + 1 > mCanvasWidth - mUfoWidth / 2
-                        || wallsIntersects(mUfo.x + 1 - mUfoWidth / 2, mUfo.y - mUfoHeight / 2,
-                                mUfo.x + 1 + mUfoWidth / 2, mUfo.y + mUfoHeight / 2)) {
-                    // Rebound
-                    mUfo.x -= 1;
-                    vel.x *= -1 * REBOUND_FAC;
-                    mUfoXVelocity *= -1 * REBOUND_FAC;
-                    mXFriction *= -1 * REBOUND_FAC;
-                } else {
-                    mUfo.x += 1;
-                }
-                vel.x--;
-            } else {
-                if (mUfo.x - 1 < mUfoWidth / 2
-                        || wallsIntersects(mUfo.x - 1 - mUfoWidth / 2, mUfo.y - mUfoHeight / 2,
-                                mUfo.x - 1 + mUfoWidth / 2, mUfo.y + mUfoHeight / 2)) {
-                    // Rebound
-                    mUfo.x += 1;
-                    vel.x *= -1 * REBOUND_FAC;
-                    mUfoXVelocity *= -1 * REBOUND_FAC;
-                    mXFriction *= -1 * REBOUND_FAC;
-                } else {
-                    mUfo.x -= 1;
-                }
-                vel.x++;
-            }
-            n--;
+     * @param direction One of the SpriteMask directions.
+     * @param distance The number of pixels the UFO wants to move.
+     * @return The number of pixels the UFO can move, at most distance.
+     */
+    private int sweep(int direction, int distance) {
+        // The limit from the canvas edges.
+        int free;
+        switch (direction) {
+            case SpriteMask.RIGHT:
+                free = mCanvasWidth - mUfoWidth / 2 - mUfo.x;
+                break;
+            case SpriteMask.LEFT:
+                free = mUfo.x - mUfoWidth / 2;
+                break;
+            case SpriteMask.DOWN:
+                free = mCanvasHeight - mUfoHeight / 2 - mUfo.y;
+                break;
+            default:
+                free = mUfo.y - mUfoHeight / 2;
+                break;
         }
+        free = Math.max(0, Math.min(free, distance));
+        return mWallIndex.sweep(mUfoMask, direction, free, mUfo.x - mUfoWidth / 2, mUfo.y
+                - mUfoHeight / 2, mUfo.x + mUfoWidth / 2, mUfo.y + mUfoHeight / 2);
     }
 
     private void mazeCompleted() {
@@ -680,30 +1120,92 @@ public class MazeThread extends Thread {
      * 
      * @param canvas
      */
-    private void mDraw(Canvas canvas) {
+    private void mDraw(Canvas canvas, boolean fullRedraw) {
+        // draw the background, maze and end cell
+        if (mMazeLayerDirty) {
+            drawMazeLayer();
+        }
+        if (fullRedraw) {
+            canvas.drawBitmap(mMazeLayer, 0, 0, null);
+        } else {
+            canvas.drawBitmap(mMazeLayer, mDirtyRect, mDirtyRect, null);
+        }
+
+        // Draw the path
+        if (mPrefs.getBoolean("pref_path", true)) {
+            canvas.drawPath(mPath, mPathPaint);
+        }
+
+        // Draw the ufo.
+        canvas.drawBitmap(mUfoBm, mUfoBounds.left, mUfoBounds.top, null);
+
+    }
+
+    /**
+     * Calculates where the ufo will be drawn this frame and the area of the
+     * surface that needs to be redrawn, which is put in mDirtyRect.
+     * 
+     * @return True iff the whole surface needs to be redrawn.
+     */
+    private boolean calculateDirtyRect() {
+        // Draw the ufo between its last two simulated positions.
+        int ufoX = mUfo.x;
+        int ufoY = mUfo.y;
+        if (mState == STATE_RUNNING) {
+            ufoX = mPrevUfoX + (int) ((mUfo.x - mPrevUfoX) * mAccumulatedNanos / STEP_NANOS);
+            ufoY = mPrevUfoY + (int) ((mUfo.y - mPrevUfoY) * mAccumulatedNanos / STEP_NANOS);
+        }
+        mUfoBounds.set(ufoX - mUfoWidth / 2, ufoY - mUfoHeight / 2, ufoX - mUfoWidth / 2
+                + mUfoWidth, ufoY - mUfoHeight / 2 + mUfoHeight);
+
+        if (mFullRedraw || mMazeLayerDirty) {
+            mDirtyRect.set(0, 0, mCanvasWidth, mCanvasHeight);
+            return true;
+        }
+        // The union of the old and new ufo and the new part of the path.
+        mDirtyRect.set(mDrawnUfoBounds);
+        mDirtyRect.union(mUfoBounds);
+        if (!mNewPathBounds.isEmpty()) {
+            mDirtyRect.union(mNewPathBounds.left - PATH_MARGIN, mNewPathBounds.top - PATH_MARGIN,
+                    mNewPathBounds.right + PATH_MARGIN, mNewPathBounds.bottom + PATH_MARGIN);
+        }
+        if (!mDirtyRect.intersect(0, 0, mCanvasWidth, mCanvasHeight)) {
+            mDirtyRect.set(0, 0, 1, 1);
+        }
+        return false;
+    }
+
+    /**
+     * Draws the parts of the game that don't change while the maze is played
+     * into mMazeLayer, creating it if the canvas size changed.
+     */
+    private void drawMazeLayer() {
+        if (mMazeLayer == null || mMazeLayer.getWidth() != mCanvasWidth
+                || mMazeLayer.getHeight() != mCanvasHeight) {
+            if (mMazeLayer != null) {
+                mMazeLayer.recycle();
+            }
+            mMazeLayer = Bitmap.createBitmap(mCanvasWidth, mCanvasHeight, Bitmap.Config.ARGB_8888);
+            mMazeLayerCanvas = new Canvas();
+            mMazeLayerCanvas.setBitmap(mMazeLayer);
+        }
+
         // draw the background
-        canvas.drawRect(0, 0, mCanvasWidth, mCanvasHeight, mBackgroundPaint);
+        mMazeLayerCanvas.drawRect(0, 0, mCanvasWidth, mCanvasHeight, mBackgroundPaint);
 
         // draw the maze
         mMazePaint.setColor(Color.BLACK);
         for (Wall w : mMaze.getWalls()) {
-            canvas.drawRect(w.getBounds(), mMazePaint);
+            mMazeLayerCanvas.drawRect(w.getBounds(), mMazePaint);
         }
 
         // Draw the end cell.
         mMazePaint.setColor(Color.RED);
         mMazePaint.setAlpha(150);
-        canvas.drawRect(mEndRect, mMazePaint);
+        mMazeLayerCanvas.drawRect(mEndRect, mMazePaint);
         mMazePaint.setAlpha(255);
 
-        // Draw the path
-        if (mPrefs.getBoolean("pref_path", true)) {
-            canvas.drawPath(mPath, mPathPaint);
-        }
-
-        // Draw the ufo.
-        canvas.drawBitmap(mUfoBm, mUfo.x - mUfoWidth / 2, mUfo.y - mUfoHeight / 2, null);
-
+        mMazeLayerDirty = false;
     }
 
     /**
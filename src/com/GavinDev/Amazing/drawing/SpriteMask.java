@@ -0,0 +1,136 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.drawing;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.Arrays;
+
+/**
+ * The shape of a sprite as the first and last opaque pixel of every row and
+ * column, which is enough to compute how far the sprite can slide along an
+ * axis before it touches an axis aligned rectangle. Rows and columns are
+ * treated as solid between their first and last opaque pixel, so holes and
+ * notches in the sprite's outline count as opaque.
+ */
+class SpriteMask {
+
+    // Directions the sprite can move in.
+    static final int RIGHT = 0;
+    static final int LEFT = 1;
+    static final int DOWN = 2;
+    static final int UP = 3;
+
+    private final int mWidth;
+    private final int mHeight;
+
+    // The first and last opaque column of each row, -1 for empty rows.
+    private final int[] mRowMin;
+    private final int[] mRowMax;
+    // The first and last opaque row of each column, -1 for empty columns.
+    private final int[] mColMin;
+    private final int[] mColMax;
+
+    /**
+     * Finds the extents from the pixels of the bitmap. This is relatively
+     * expensive and should only be done when the bitmap changes.
+     * 
+     * @param bitmap The sprite.
+     * @param width The width of the sprite's bounding box, pixels of the
+     *            bitmap outside of it are ignored.
+     * @param height The height of the sprite's bounding box, pixels of the
+     *            bitmap outside of it are ignored.
+     */
+    SpriteMask(Bitmap bitmap, int width, int height) {
+        mWidth = Math.min(width, bitmap.getWidth());
+        mHeight = Math.min(height, bitmap.getHeight());
+        int[] pixels = new int[mWidth * mHeight];
+        if (mWidth > 0 && mHeight > 0)
+            bitmap.getPixels(pixels, 0, mWidth, 0, 0, mWidth, mHeight);
+
+        mRowMin = new int[mHeight];
+        mRowMax = new int[mHeight];
+        mColMin = new int[mWidth];
+        mColMax = new int[mWidth];
+        Arrays.fill(mRowMin, -1);
+        Arrays.fill(mRowMax, -1);
+        Arrays.fill(mColMin, -1);
+        Arrays.fill(mColMax, -1);
+        for (int y = 0; y < mHeight; y++) {
+            for (int x = 0; x < mWidth; x++) {
+                if (pixels[y * mWidth + x] == Color.TRANSPARENT)
+                    continue;
+                if (mRowMin[y] < 0)
+                    mRowMin[y] = x;
+                mRowMax[y] = x;
+                if (mColMin[x] < 0)
+                    mColMin[x] = y;
+                mColMax[x] = y;
+            }
+        }
+    }
+
+    /**
+     * Calculates how many pixels the sprite can move in a direction before
+     * one of its opaque pixels would overlap the given rectangle. The
+     * rectangle is in the sprite's coordinates, i.e. relative to the top left
+     * of the sprite's bounding box at its current position.
+     * 
+     * @param direction One of RIGHT, LEFT, DOWN or UP.
+     * @return The number of pixels the sprite can move, Integer.MAX_VALUE if
+     *         the rectangle is never hit, or 0 if it already overlaps.
+     */
+    int freeDistance(int direction, int left, int top, int right, int bottom) {
+        int distance = Integer.MAX_VALUE;
+        if (direction == RIGHT || direction == LEFT) {
+            int last = Math.min(bottom, mHeight);
+            for (int y = Math.max(top, 0); y < last; y++) {
+                if (mRowMax[y] < 0)
+                    continue;
+                if (direction == RIGHT) {
+                    if (left > mRowMax[y])
+                        distance = Math.min(distance, left - mRowMax[y] - 1);
+                    else if (right > mRowMin[y])
+                        return 0;
+                } else {
+                    if (right <= mRowMin[y])
+                        distance = Math.min(distance, mRowMin[y] - right);
+                    else if (left <= mRowMax[y])
+                        return 0;
+                }
+            }
+        } else {
+            int last = Math.min(right, mWidth);
+            for (int x = Math.max(left, 0); x < last; x++) {
+                if (mColMax[x] < 0)
+                    continue;
+                if (direction == DOWN) {
+                    if (top > mColMax[x])
+                        distance = Math.min(distance, top - mColMax[x] - 1);
+                    else if (bottom > mColMin[x])
+                        return 0;
+                } else {
+                    if (bottom <= mColMin[x])
+                        distance = Math.min(distance, mColMin[x] - bottom);
+                    else if (top <= mColMax[x])
+                        return 0;
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,132 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.drawing;
+
+import android.view.MotionEvent;
+
+/**
+ * Passes touch input from the UI thread to a game thread without locks. The UI
+ * thread is the only writer and publishes with a sequence lock: the sequence
+ * number is odd while an update is in progress, and a reader retries until it
+ * reads the same even sequence number before and after reading the fields.
+ * <p>
+ * Instead of only the latest position the writer publishes running sums of
+ * every sample, including the batched historical samples of each MotionEvent,
+ * so the reader gets the average position of all samples since its last
+ * read.
+ */
+class TouchMailbox {
+
+    // Written only by the UI thread. All fields are volatile so the reads in
+    // read() can't be reordered around the reads of mSequence.
+    private volatile int mSequence;
+    private volatile double mSumX;
+    private volatile double mSumY;
+    private volatile long mCount;
+    private volatile boolean mTouching;
+
+    // Only used by the reading thread.
+    private double mReadSumX;
+    private double mReadSumY;
+    private long mReadCount;
+    private float mX;
+    private float mY;
+
+    /**
+     * Publishes a touch event. Must only be called from one thread, normally
+     * the UI thread.
+     */
+    void publish(MotionEvent ev) {
+        int sequence = mSequence;
+        switch (ev.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+                mSequence = sequence + 1;
+                double sumX = mSumX;
+                double sumY = mSumY;
+                int history = ev.getHistorySize();
+                for (int i = 0; i < history; i++) {
+                    sumX += ev.getHistoricalX(i);
+                    sumY += ev.getHistoricalY(i);
+                }
+                mSumX = sumX + ev.getX();
+                mSumY = sumY + ev.getY();
+                mCount = mCount + history + 1;
+                mTouching = true;
+                mSequence = sequence + 2;
+                break;
+            case MotionEvent.ACTION_UP:
+                mSequence = sequence + 1;
+                mTouching = false;
+                mSequence = sequence + 2;
+                break;
+        }
+    }
+
+    /**
+     * Reads the samples published since the last call. Must only be called
+     * from one thread, the game thread.
+     * 
+     * @return True iff the screen is being touched.
+     */
+    boolean read() {
+        int sequence;
+        double sumX;
+        double sumY;
+        long count;
+        boolean touching;
+        do {
+            sequence = mSequence;
+            sumX = mSumX;
+            sumY = mSumY;
+            count = mCount;
+            touching = mTouching;
+        } while ((sequence & 1) != 0 || sequence != mSequence);
+
+        if (count != mReadCount) {
+            mX = (float) ((sumX - mReadSumX) / (count - mReadCount));
+            mY = (float) ((sumY - mReadSumY) / (count - mReadCount));
+            mReadSumX = sumX;
+            mReadSumY = sumY;
+            mReadCount = count;
+        }
+        return touching;
+    }
+
+    /**
+     * @return The average x coordinate of the samples read by the last call
+     *         to read() that found new samples.
+     */
+    float getX() {
+        return mX;
+    }
+
+    /**
+     * @return The average y coordinate of the samples read by the last call
+     *         to read() that found new samples.
+     */
+    float getY() {
+        return mY;
+    }
+
+    /**
+     * @return True iff the screen is being touched. Can be called from any
+     *         thread.
+     */
+    boolean isTouching() {
+        return mTouching;
+    }
+}
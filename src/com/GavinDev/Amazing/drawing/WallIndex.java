@@ -0,0 +1,191 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.GavinDev.Amazing.drawing;
+
+import android.graphics.Rect;
+
+import com.GavinDev.Amazing.Maze.Wall;
+
+import java.util.List;
+
+/**
+ * A uniform grid over the pixel bounds of a maze's walls. Each bucket of the
+ * grid covers one maze cell plus the wall to its top and left, so a query for
+ * an object smaller than a cell only has to look at a handful of walls instead
+ * of every wall in the maze.
+ * <p>
+ * The buckets are stored as one flat array of walls with an array of start
+ * offsets, so querying the index does not allocate.
+ */
+class WallIndex {
+
+    private final int mOriginX;
+    private final int mOriginY;
+    private final int mBucketWidth;
+    private final int mBucketHeight;
+    private final int mColumns;
+    private final int mRows;
+
+    /**
+     * The walls in bucket b are mWalls[mBucketStart[b]] up to but not
+     * including mWalls[mBucketStart[b + 1]].
+     */
+    private final int[] mBucketStart;
+    private final Wall[] mWalls;
+
+    /**
+     * @param walls The walls to index, their bounds must already be set.
+     * @param originX The x pixel coordinate of the left edge of the maze.
+     * @param originY The y pixel coordinate of the top edge of the maze.
+     * @param bucketWidth The width of a bucket in pixels, i.e. cell width plus
+     *            wall width.
+     * @param bucketHeight The height of a bucket in pixels, i.e. cell height
+     *            plus wall width.
+     * @param cellsPerRow The number of cells in one row of the maze.
+     * @param cellsPerColumn The number of cells in one column of the maze.
+     */
+    WallIndex(List<Wall> walls, int originX, int originY, int bucketWidth, int bucketHeight,
+            int cellsPerRow, int cellsPerColumn) {
+        mOriginX = originX;
+        mOriginY = originY;
+        mBucketWidth = Math.max(1, bucketWidth);
+        mBucketHeight = Math.max(1, bucketHeight);
+        // One extra column and row for the walls on the right and bottom
+        // boundary.
+        mColumns = cellsPerRow + 1;
+        mRows = cellsPerColumn + 1;
+        mBucketStart = new int[mColumns * mRows + 1];
+
+        // First pass counts the walls in each bucket, second pass fills them
+        // in.
+        for (Wall w : walls) {
+            Rect b = w.getBounds();
+            for (int row = rowOf(b.top); row <= rowOf(b.bottom - 1); row++) {
+                for (int col = columnOf(b.left); col <= columnOf(b.right - 1); col++) {
+                    mBucketStart[row * mColumns + col + 1]++;
+                }
+            }
+        }
+        for (int i = 1; i < mBucketStart.length; i++) {
+            mBucketStart[i] += mBucketStart[i - 1];
+        }
+        mWalls = new Wall[mBucketStart[mBucketStart.length - 1]];
+        int[] fill = new int[mColumns * mRows];
+        for (Wall w : walls) {
+            Rect b = w.getBounds();
+            for (int row = rowOf(b.top); row <= rowOf(b.bottom - 1); row++) {
+                for (int col = columnOf(b.left); col <= columnOf(b.right - 1); col++) {
+                    int bucket = row * mColumns + col;
+                    mWalls[mBucketStart[bucket] + fill[bucket]] = w;
+                    fill[bucket]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The column of the bucket containing the x pixel coordinate,
+     *         clamped to the grid.
+     */
+    int columnOf(int x) {
+        int col = (x - mOriginX) / mBucketWidth;
+        if (x < mOriginX || col < 0)
+            return 0;
+        return col < mColumns ? col : mColumns - 1;
+    }
+
+    /**
+     * @return The row of the bucket containing the y pixel coordinate, clamped
+     *         to the grid.
+     */
+    int rowOf(int y) {
+        int row = (y - mOriginY) / mBucketHeight;
+        if (y < mOriginY || row < 0)
+            return 0;
+        return row < mRows ? row : mRows - 1;
+    }
+
+    /**
+     * @return The index in {@link #getWall(int)} of the first wall in the
+     *         bucket at the given column and row.
+     */
+    int bucketStart(int col, int row) {
+        return mBucketStart[row * mColumns + col];
+    }
+
+    /**
+     * @return One past the index in {@link #getWall(int)} of the last wall in
+     *         the bucket at the given column and row.
+     */
+    int bucketEnd(int col, int row) {
+        return mBucketStart[row * mColumns + col + 1];
+    }
+
+    Wall getWall(int i) {
+        return mWalls[i];
+    }
+
+    /**
+     * Finds how far a sprite can move in a direction before it hits a wall.
+     * Only the walls in the buckets of the area swept by the sprite are
+     * tested.
+     * 
+     * @param mask The shape of the sprite.
+     * @param direction One of the SpriteMask directions.
+     * @param distance The number of pixels the sprite wants to move.
+     * @param left The x pixel coordinate of the left of the sprite.
+     * @param top The y pixel coordinate of the top of the sprite.
+     * @param right The x pixel coordinate of the right of the sprite.
+     * @param bottom The y pixel coordinate of the bottom of the sprite.
+     * @return The number of pixels the sprite can move, at most distance.
+     */
+    int sweep(SpriteMask mask, int direction, int distance, int left, int top, int right,
+            int bottom) {
+        int spriteLeft = left;
+        int spriteTop = top;
+        switch (direction) {
+            case SpriteMask.RIGHT:
+                right += distance;
+                break;
+            case SpriteMask.LEFT:
+                left -= distance;
+                break;
+            case SpriteMask.DOWN:
+                bottom += distance;
+                break;
+            default:
+                top -= distance;
+                break;
+        }
+
+        int free = distance;
+        int lastCol = columnOf(right - 1);
+        int lastRow = rowOf(bottom - 1);
+        for (int row = rowOf(top); row <= lastRow && free > 0; row++) {
+            for (int col = columnOf(left); col <= lastCol; col++) {
+                int end = bucketEnd(col, row);
+                for (int i = bucketStart(col, row); i < end; i++) {
+                    Rect b = mWalls[i].getBounds();
+                    if (b.intersects(left, top, right, bottom)) {
+                        free = Math.min(free, mask.freeDistance(direction, b.left - spriteLeft,
+                                b.top - spriteTop, b.right - spriteLeft, b.bottom - spriteTop));
+                    }
+                }
+            }
+        }
+        return free;
+    }
+}
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Runs the tests of the code that doesn't need a device, on a plain JVM. The
+# Android classes that code touches, and GameActivity, are replaced by the
+# stand-ins in stubs/, which come first on the source path. Needs a JDK on
+# the path.
+set -e
+cd "$(dirname "$0")"
+out=$(mktemp -d)
+trap 'rm -rf "$out"' EXIT
+tests=$(cd src && find . -name '*Test.java' | sed -e 's|^\./||' -e 's|\.java$||' -e 's|/|.|g')
+javac -nowarn -encoding UTF-8 -d "$out" -sourcepath stubs:../src:src $(find src -name '*Test.java')
+for test in $tests; do
+    echo "$test"
+    case $test in
+        # Interpreted, so the JIT can't remove allocations that ART would make.
+        *AllocationTest) java -Xint -cp "$out" "$test" ;;
+        *) java -cp "$out" "$test" ;;
+    esac
+done
@@ -0,0 +1,48 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.GavinDev.Amazing;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads how many bytes the current thread has allocated, for the tests that
+ * check a code path doesn't allocate.
+ */
+public final class Allocations {
+
+    private static final ThreadMXBean mThreads = ManagementFactory.getThreadMXBean();
+
+    private Allocations() {
+    }
+
+    /**
+     * @return True iff the JVM can count the bytes allocated by a thread.
+     */
+    public static boolean isSupported() {
+        return mThreads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) mThreads)
+                        .isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * @return The number of bytes the current thread has allocated so far.
+     *         Only meaningful if {@link #isSupported()}.
+     */
+    public static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) mThreads).getThreadAllocatedBytes(Thread
+                .currentThread().getId());
+    }
+}
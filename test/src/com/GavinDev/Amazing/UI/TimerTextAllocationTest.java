@@ -0,0 +1,72 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.GavinDev.Amazing.UI;
+
+import com.GavinDev.Amazing.Allocations;
+
+import java.util.Locale;
+
+/**
+ * Checks that formatting the timer text doesn't allocate, and still gives
+ * what String.format gave.
+ */
+public class TimerTextAllocationTest {
+    /** Ten hours in steps that hit every tenth of a second of the first hour. */
+    private static final int LAST_TIME = 10 * 60 * 60 * 1000;
+    private static final int CALLS = 20000;
+
+    public static void main(String[] args) {
+        StringBuilder out = new StringBuilder();
+        for (int time = 0; time < LAST_TIME; time += time < 60 * 60 * 1000 ? 37 : 997) {
+            TimerText.millisToString(time, out);
+            String expected = format(time);
+            if (!expected.contentEquals(out))
+                throw new AssertionError(time + " ms formatted as " + out + ", expected "
+                        + expected);
+        }
+
+        if (!Allocations.isSupported()) {
+            System.out.println("Allocation counting not supported, skipped");
+            return;
+        }
+        for (int run = 0; run < 2; run++) {
+            // The first run warms up.
+            long before = Allocations.allocatedBytes();
+            for (int i = 0; i < CALLS; i++) {
+                TimerText.millisToString(i * 7919 % LAST_TIME, out);
+            }
+            long bytes = Allocations.allocatedBytes() - before;
+            if (run > 0) {
+                System.out.println(bytes + " bytes allocated in " + CALLS + " calls");
+                if (bytes != 0)
+                    throw new AssertionError("Formatting the timer allocated " + bytes + " bytes");
+            }
+        }
+    }
+
+    /** The timer text as it was formatted before it stopped allocating. */
+    private static String format(int time) {
+        int millis = (time % 1000) / 100;
+        int second = (time / 1000) % 60;
+        int minute = (time / (1000 * 60)) % 60;
+        int hour = (time / (1000 * 60 * 60)) % 24;
+        if (hour > 0)
+            return String.format(Locale.US, "%d:%02d:%02d.%d", hour, minute, second, millis);
+        else if (minute > 0)
+            return String.format(Locale.US, "%d:%02d.%d", minute, second, millis);
+        else
+            return String.format(Locale.US, "%d.%d", second, millis);
+    }
+}
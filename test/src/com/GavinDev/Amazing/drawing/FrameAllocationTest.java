@@ -0,0 +1,89 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.GavinDev.Amazing.drawing;
+
+import android.view.MotionEvent;
+
+import com.GavinDev.Amazing.Allocations;
+import com.GavinDev.Amazing.Maze.Maze;
+import com.GavinDev.Amazing.Maze.MazeGenerators;
+
+import java.util.Random;
+
+/**
+ * Checks that the parts of a game loop frame that don't need Android, reading
+ * the touch input and finding how far the UFO can move in every direction,
+ * don't allocate.
+ */
+public class FrameAllocationTest {
+    private static final int[][] SIZES = {
+            {12, 15}, {50, 50}, {100, 100}, {200, 200}
+    };
+    private static final int FRAMES = 20000;
+    private static final int POSITIONS = 1024;
+    /** The furthest the UFO is asked to move in one frame. */
+    private static final int MAX_DISTANCE = 6;
+
+    private static long mSink;
+
+    public static void main(String[] args) {
+        if (!Allocations.isSupported()) {
+            System.out.println("Allocation counting not supported, skipped");
+            return;
+        }
+        SpriteMask mask = TestMazes.ufoMask();
+        TouchMailbox mailbox = new TouchMailbox();
+        mailbox.publish(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 100, 100, 0));
+
+        for (int[] size : SIZES) {
+            Maze maze = new Maze(size[0], size[1], MazeGenerators.get(MazeGenerators.KRUSKAL),
+                    size[0], null);
+            WallIndex index = TestMazes.index(maze, TestMazes.layOut(maze));
+            int[] xs = new int[POSITIONS];
+            int[] ys = new int[POSITIONS];
+            Random rand = new Random(size[0]);
+            for (int i = 0; i < POSITIONS; i++) {
+                xs[i] = TestMazes.centreOf(rand.nextInt(size[0]));
+                ys[i] = TestMazes.centreOf(rand.nextInt(size[1]));
+            }
+
+            for (int run = 0; run < 2; run++) {
+                // The first run warms up.
+                long before = Allocations.allocatedBytes();
+                for (int frame = 0; frame < FRAMES; frame++) {
+                    int x = xs[frame % POSITIONS];
+                    int y = ys[frame % POSITIONS];
+                    boolean touching = mailbox.read();
+                    long moved = touching ? (long) mailbox.getX() + (long) mailbox.getY() : 0;
+                    for (int direction = 0; direction < 4; direction++) {
+                        moved += index.sweep(mask, direction, MAX_DISTANCE, x
+                                - TestMazes.UFO_WIDTH / 2, y - TestMazes.UFO_HEIGHT / 2, x
+                                + TestMazes.UFO_WIDTH / 2, y + TestMazes.UFO_HEIGHT / 2);
+                    }
+                    mSink += moved;
+                }
+                long bytes = Allocations.allocatedBytes() - before;
+                if (run > 0) {
+                    System.out.println(size[0] + "x" + size[1] + ": " + bytes
+                            + " bytes allocated in " + FRAMES + " frames");
+                    if (bytes != 0)
+                        throw new AssertionError("A frame of a " + size[0] + "x" + size[1]
+                                + " maze allocated " + bytes + " bytes in " + FRAMES
+                                + " frames");
+                }
+            }
+        }
+    }
+}
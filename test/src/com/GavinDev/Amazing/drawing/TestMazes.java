@@ -0,0 +1,115 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.GavinDev.Amazing.drawing;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import com.GavinDev.Amazing.Maze.Cell;
+import com.GavinDev.Amazing.Maze.Maze;
+import com.GavinDev.Amazing.Maze.Wall;
+
+import java.util.List;
+
+/**
+ * Lays out mazes at a fixed cell size the way MazeThread does, and makes an
+ * oval UFO mask, for the tests of the collision code.
+ */
+final class TestMazes {
+    static final int CELL_SIZE = 30;
+    static final int WALL_WIDTH = 3;
+    static final int BOUNDARY = 5;
+    static final int UFO_WIDTH = 20;
+    static final int UFO_HEIGHT = 14;
+
+    private TestMazes() {
+    }
+
+    /**
+     * Sets the pixel bounds of every wall of the maze.
+     * 
+     * @return The walls of the maze.
+     */
+    static List<Wall> layOut(Maze maze) {
+        List<Wall> walls = maze.getWalls();
+        for (Wall wall : walls) {
+            Cell cell = wall.getCell1();
+            Cell other = wall.getCell2();
+            int row = cell.getCoords().x;
+            int col = cell.getCoords().y;
+            if (other != null) {
+                if (other.getCoords().y == col)
+                    wall.setBounds(horizontal(row + 1, col));
+                else
+                    wall.setBounds(vertical(row, col + 1));
+            } else if (row == 0) {
+                wall.setBounds(horizontal(row, col));
+            } else if (row == maze.getHeight() - 1) {
+                wall.setBounds(horizontal(row + 1, col));
+            } else if (col == 0) {
+                wall.setBounds(vertical(row, col));
+            } else {
+                wall.setBounds(vertical(row, col + 1));
+            }
+        }
+        return walls;
+    }
+
+    static WallIndex index(Maze maze, List<Wall> walls) {
+        return new WallIndex(walls, BOUNDARY, BOUNDARY, CELL_SIZE + WALL_WIDTH, CELL_SIZE
+                + WALL_WIDTH, maze.getWidth(), maze.getHeight());
+    }
+
+    /**
+     * @return The x pixel coordinate of the centre of a cell in the column,
+     *         likewise the y coordinate of a cell in the row.
+     */
+    static int centreOf(int col) {
+        return col * (CELL_SIZE + WALL_WIDTH) + BOUNDARY + WALL_WIDTH + CELL_SIZE / 2;
+    }
+
+    /**
+     * @return The mask of an opaque oval filling the UFO's bounding box.
+     */
+    static SpriteMask ufoMask() {
+        int[] pixels = new int[UFO_WIDTH * UFO_HEIGHT];
+        for (int y = 0; y < UFO_HEIGHT; y++) {
+            for (int x = 0; x < UFO_WIDTH; x++) {
+                double dx = (x + 0.5) / (UFO_WIDTH / 2.0) - 1;
+                double dy = (y + 0.5) / (UFO_HEIGHT / 2.0) - 1;
+                pixels[y * UFO_WIDTH + x] = dx * dx + dy * dy <= 1 ? Color.BLACK
+                        : Color.TRANSPARENT;
+            }
+        }
+        Bitmap bitmap = Bitmap.createBitmap(pixels, UFO_WIDTH, UFO_HEIGHT,
+                Bitmap.Config.ARGB_8888);
+        return new SpriteMask(bitmap, UFO_WIDTH, UFO_HEIGHT);
+    }
+
+    /** A wall along the top of the cell at the row and column. */
+    private static Rect horizontal(int row, int col) {
+        int x = col * (CELL_SIZE + WALL_WIDTH) + BOUNDARY;
+        int y = row * (CELL_SIZE + WALL_WIDTH) + BOUNDARY;
+        return new Rect(x, y, x + CELL_SIZE + 2 * WALL_WIDTH, y + WALL_WIDTH);
+    }
+
+    /** A wall along the left of the cell at the row and column. */
+    private static Rect vertical(int row, int col) {
+        int x = col * (CELL_SIZE + WALL_WIDTH) + BOUNDARY;
+        int y = row * (CELL_SIZE + WALL_WIDTH) + BOUNDARY;
+        return new Rect(x, y, x + WALL_WIDTH, y + CELL_SIZE + 2 * WALL_WIDTH);
+    }
+}
@@ -0,0 +1,163 @@
+/*  Amazing, the maze game.
+ * Copyright (C) 2014  Gavin Brown
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.GavinDev.Amazing.drawing;
+
+import android.graphics.Rect;
+
+import com.GavinDev.Amazing.Maze.Maze;
+import com.GavinDev.Amazing.Maze.MazeGenerators;
+import com.GavinDev.Amazing.Maze.Wall;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that a WallIndex query finds the same free distance as testing every
+ * wall in the maze, and that its cost doesn't grow with the size of the maze.
+ */
+public class WallIndexTest {
+    private static final int[][] SIZES = {
+            {12, 15}, {50, 50}, {100, 100}, {200, 200}
+    };
+    /** The furthest the UFO is asked to move in one query. */
+    private static final int MAX_DISTANCE = 40;
+    private static final int QUERIES = 1024;
+    private static final int TIMED_QUERIES = 50000;
+    private static final int SCANNED_QUERIES = 2000;
+    private static final int TIMED_RUNS = 4;
+    /** How much slower a query of the largest maze may be than the smallest. */
+    private static final double MAX_SLOWDOWN = 4;
+
+    private static long mSink;
+
+    public static void main(String[] args) {
+        SpriteMask mask = TestMazes.ufoMask();
+        List<List<Wall>> walls = new ArrayList<List<Wall>>();
+        List<WallIndex> indexes = new ArrayList<WallIndex>();
+        List<int[]> queries = new ArrayList<int[]>();
+        for (int[] size : SIZES) {
+            Maze maze = new Maze(size[0], size[1], MazeGenerators.get(MazeGenerators.KRUSKAL),
+                    size[0], null);
+            walls.add(TestMazes.layOut(maze));
+            indexes.add(TestMazes.index(maze, walls.get(walls.size() - 1)));
+            queries.add(queries(maze, new Random(size[0])));
+        }
+
+        for (int s = 0; s < SIZES.length; s++) {
+            int[] sizeQueries = queries.get(s);
+            for (int q = 0; q < sizeQueries.length; q += 4) {
+                int indexed = sweep(indexes.get(s), mask, sizeQueries, q);
+                int scanned = scan(walls.get(s), mask, sizeQueries, q);
+                if (indexed != scanned)
+                    throw new AssertionError(SIZES[s][0] + "x" + SIZES[s][1] + " query " + q / 4
+                            + ": index found " + indexed + ", full scan found " + scanned);
+            }
+        }
+
+        double smallest = 0;
+        for (int s = 0; s < SIZES.length; s++) {
+            double indexedNanos = time(indexes.get(s), null, mask, queries.get(s), TIMED_QUERIES);
+            double scannedNanos = time(null, walls.get(s), mask, queries.get(s), SCANNED_QUERIES);
+            System.out.printf("%dx%d, %d walls: %.0f ns per query, %.0f ns by full scan%n",
+                    SIZES[s][0], SIZES[s][1], walls.get(s).size(), indexedNanos, scannedNanos);
+            if (s == 0)
+                smallest = indexedNanos;
+            else if (indexedNanos > MAX_SLOWDOWN * smallest)
+                throw new AssertionError("Query cost grows with the maze: " + indexedNanos
+                        + " ns against " + smallest + " ns for the smallest maze");
+        }
+    }
+
+    /**
+     * @return QUERIES queries of four ints each: the UFO's centre x and y, a
+     *         direction and a distance. The UFO is somewhere in a random cell.
+     */
+    private static int[] queries(Maze maze, Random rand) {
+        int[] queries = new int[QUERIES * 4];
+        int jitter = TestMazes.CELL_SIZE / 2;
+        for (int q = 0; q < queries.length; q += 4) {
+            queries[q] = TestMazes.centreOf(rand.nextInt(maze.getWidth()))
+                    + rand.nextInt(2 * jitter + 1) - jitter;
+            queries[q + 1] = TestMazes.centreOf(rand.nextInt(maze.getHeight()))
+                    + rand.nextInt(2 * jitter + 1) - jitter;
+            queries[q + 2] = rand.nextInt(4);
+            queries[q + 3] = rand.nextInt(MAX_DISTANCE + 1);
+        }
+        return queries;
+    }
+
+    private static int sweep(WallIndex index, SpriteMask mask, int[] queries, int q) {
+        int x = queries[q];
+        int y = queries[q + 1];
+        return index.sweep(mask, queries[q + 2], queries[q + 3], x - TestMazes.UFO_WIDTH / 2, y
+                - TestMazes.UFO_HEIGHT / 2, x + TestMazes.UFO_WIDTH / 2, y
+                + TestMazes.UFO_HEIGHT / 2);
+    }
+
+    /**
+     * The same query as WallIndex.sweep(), testing every wall in the maze.
+     */
+    private static int scan(List<Wall> walls, SpriteMask mask, int[] queries, int q) {
+        int direction = queries[q + 2];
+        int distance = queries[q + 3];
+        int spriteLeft = queries[q] - TestMazes.UFO_WIDTH / 2;
+        int spriteTop = queries[q + 1] - TestMazes.UFO_HEIGHT / 2;
+        int left = spriteLeft;
+        int top = spriteTop;
+        int right = queries[q] + TestMazes.UFO_WIDTH / 2;
+        int bottom = queries[q + 1] + TestMazes.UFO_HEIGHT / 2;
+        if (direction == SpriteMask.RIGHT)
+            right += distance;
+        else if (direction == SpriteMask.LEFT)
+            left -= distance;
+        else if (direction == SpriteMask.DOWN)
+            bottom += distance;
+        else
+            top -= distance;
+
+        int free = distance;
+        for (int i = 0, n = walls.size(); i < n && free > 0; i++) {
+            Rect b = walls.get(i).getBounds();
+            if (b.intersects(left, top, right, bottom)) {
+                free = Math.min(free, mask.freeDistance(direction, b.left - spriteLeft, b.top
+                        - spriteTop, b.right - spriteLeft, b.bottom - spriteTop));
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Times queries against the index, or against every wall if index is
+     * null. The first of the runs warms up.
+     * 
+     * @return The mean time of one query in nanoseconds, from the fastest run.
+     */
+    private static double time(WallIndex index, List<Wall> walls, SpriteMask mask,
+            int[] queries, int count) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                int q = (i % QUERIES) * 4;
+                mSink += index != null ? sweep(index, mask, queries, q) : scan(walls, mask,
+                        queries, q);
+            }
+            if (run > 0)
+                best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / count;
+    }
+}
@@ -0,0 +1,40 @@
+package android.graphics;
+
+/**
+ * The parts of android.graphics.Bitmap the tests use, backed by an int array
+ * of ARGB pixels.
+ */
+public final class Bitmap {
+    public enum Config {
+        ARGB_8888
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int[] mPixels;
+
+    private Bitmap(int[] pixels, int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mPixels = pixels.clone();
+    }
+
+    public static Bitmap createBitmap(int[] colors, int width, int height, Config config) {
+        return new Bitmap(colors, width, height);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width,
+            int height) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(mPixels, (y + row) * mWidth + x, pixels, offset + row * stride, width);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package android.graphics;
+
+/**
+ * The parts of android.graphics.Color the tests use.
+ */
+public class Color {
+    public static final int TRANSPARENT = 0;
+    public static final int BLACK = 0xff000000;
+}
@@ -0,0 +1,39 @@
+package android.graphics;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * The parts of android.graphics.Rect the tests use, so the maze and
+ * collision code can run on a plain JVM.
+ */
+public final class Rect implements Parcelable {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Rect() {
+    }
+
+    public Rect(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public boolean intersects(int left, int top, int right, int bottom) {
+        return this.left < right && left < this.right && this.top < bottom && top < this.bottom;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel out, int flags) {
+        throw new RuntimeException("Stub!");
+    }
+}
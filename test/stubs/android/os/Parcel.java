@@ -0,0 +1,75 @@
+package android.os;
+
+import java.util.List;
+
+/**
+ * The methods of android.os.Parcel the maze classes call. Parcelling isn't
+ * tested, so they all throw.
+ */
+public final class Parcel {
+    public void writeInt(int value) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int readInt() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void writeLong(long value) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public long readLong() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void writeByte(byte value) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public byte readByte() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void writeByteArray(byte[] values) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void readByteArray(byte[] values) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void writeLongArray(long[] values) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public long[] createLongArray() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public <T extends Parcelable> void writeTypedArray(T[] values, int flags) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public <T> void readTypedArray(T[] values, Parcelable.Creator<T> creator) {
+        throw new RuntimeException("Stub!");
+    }
+
+    @SuppressWarnings("rawtypes")
+    public void writeList(List values) {
+        throw new RuntimeException("Stub!");
+    }
+
+    @SuppressWarnings("rawtypes")
+    public void readList(List values, ClassLoader loader) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void writeParcelable(Parcelable value, int flags) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public <T extends Parcelable> T readParcelable(ClassLoader loader) {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * android.os.Parcelable, so the maze classes compile on a plain JVM.
+ */
+public interface Parcelable {
+    int describeContents();
+
+    void writeToParcel(Parcel out, int flags);
+
+    interface Creator<T> {
+        T createFromParcel(Parcel in);
+
+        T[] newArray(int size);
+    }
+}
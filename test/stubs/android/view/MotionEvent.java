@@ -0,0 +1,50 @@
+package android.view;
+
+/**
+ * The parts of android.view.MotionEvent the tests use, a single sample with
+ * no history.
+ */
+public final class MotionEvent {
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+
+    private final int mAction;
+    private final float mX;
+    private final float mY;
+
+    private MotionEvent(int action, float x, float y) {
+        mAction = action;
+        mX = x;
+        mY = y;
+    }
+
+    public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y,
+            int metaState) {
+        return new MotionEvent(action, x, y);
+    }
+
+    public int getAction() {
+        return mAction;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public int getHistorySize() {
+        return 0;
+    }
+
+    public float getHistoricalX(int pos) {
+        return 0;
+    }
+
+    public float getHistoricalY(int pos) {
+        return 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.GavinDev.Amazing.UI;
+
+/**
+ * The maze types of the real GameActivity, which can't be built without the
+ * Android SDK. Keep the values in step with it.
+ */
+public class GameActivity {
+    public static final int PERFECT_MAZE = 0;
+    public static final int DFS_MAZE = 1;
+    public static final int GROWING_TREE_MAZE = 2;
+}